@@ -0,0 +1,127 @@
+package com.arte.apicore.client;
+
+import com.arte.apicore.grpc.IngestionServiceGrpc;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.MethodDescriptor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed set of channels to the ingestion service used as one {@link Channel}.
+ * Every channel load balances over all replicas the target resolves to (round_robin by default),
+ * having more than one just adds HTTP/2 connections per replica once a single connection's
+ * concurrent stream limit becomes the bottleneck. Calls are spread over the channels in turn.
+ * <p>
+ * Retries (and optionally hedging) come from the service config and only cover idempotent RPCs,
+ * ingestion calls write data and are never replayed.
+ */
+@Slf4j
+class IngestionChannelPool extends Channel {
+
+    private final List<ManagedChannel> channels;
+    private final AtomicInteger next = new AtomicInteger();
+
+    IngestionChannelPool(List<ManagedChannel> channels) {
+        if (channels.isEmpty()) {
+            throw new IllegalArgumentException("Channel pool needs at least one channel");
+        }
+        this.channels = List.copyOf(channels);
+    }
+
+    /**
+     * @param target {@code dns:///host:port} or {@code static:///host1:port,host2:port}
+     */
+    static IngestionChannelPool create(String target, int size, Map<String, ?> serviceConfig,
+                                       int maxAttempts, Duration keepAliveTime, Duration keepAliveTimeout) {
+        log.info("connecting to ingestion service at {} over {} channel(s)", target, size);
+        List<ManagedChannel> channels = new ArrayList<>();
+        for (int i = 0; i < Math.max(size, 1); i++) {
+            channels.add(ManagedChannelBuilder.forTarget(target)
+                    .usePlaintext()
+                    .defaultServiceConfig(serviceConfig)
+                    .enableRetry()
+                    .maxRetryAttempts(Math.max(maxAttempts, 1))
+                    // the server permits a ping every 30s at most, stay above that
+                    .keepAliveTime(keepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+                    .keepAliveTimeout(keepAliveTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .build());
+        }
+        return new IngestionChannelPool(channels);
+    }
+
+    /**
+     * Service config for the ingestion channels. {@code HealthCheck} is retried on UNAVAILABLE.
+     * {@code IngestLinkedInJob} only reads or upserts the same job row, so it gets the same retry policy,
+     * or a hedging policy when {@code hedgingDelay} is positive. Numbers are doubles as grpc's JSON parser expects.
+     */
+    static Map<String, Object> serviceConfig(String loadBalancingPolicy, int maxAttempts, Duration hedgingDelay) {
+        double attempts = Math.max(maxAttempts, 1);
+        Map<String, Object> retryPolicy = Map.of(
+                "maxAttempts", attempts,
+                "initialBackoff", "0.2s",
+                "maxBackoff", "2s",
+                "backoffMultiplier", 2.0,
+                "retryableStatusCodes", List.of("UNAVAILABLE"));
+
+        Map<String, Object> linkedInPolicy = hedgingDelay.isZero() || hedgingDelay.isNegative()
+                ? Map.of("retryPolicy", retryPolicy)
+                : Map.of("hedgingPolicy", Map.of(
+                        "maxAttempts", attempts,
+                        "hedgingDelay", toDurationString(hedgingDelay),
+                        "nonFatalStatusCodes", List.of("UNAVAILABLE")));
+
+        return Map.of(
+                "loadBalancingConfig", List.of(Map.of(loadBalancingPolicy, Map.of())),
+                "methodConfig", List.of(
+                        methodConfig(IngestionServiceGrpc.getHealthCheckMethod(), Map.of("retryPolicy", retryPolicy)),
+                        methodConfig(IngestionServiceGrpc.getIngestLinkedInJobMethod(), linkedInPolicy)));
+    }
+
+    private static Map<String, Object> methodConfig(MethodDescriptor<?, ?> method, Map<String, Object> policy) {
+        Map<String, Object> config = new HashMap<>(policy);
+        config.put("name", List.of(Map.of(
+                "service", IngestionServiceGrpc.SERVICE_NAME,
+                "method", method.getBareMethodName())));
+        return config;
+    }
+
+    private static String toDurationString(Duration duration) {
+        return duration.toMillis() / 1000.0 + "s";
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+        return channels.get(Math.floorMod(next.getAndIncrement(), channels.size())).newCall(method, callOptions);
+    }
+
+    @Override
+    public String authority() {
+        return channels.getFirst().authority();
+    }
+
+    void shutdown(Duration timeout) throws InterruptedException {
+        channels.forEach(ManagedChannel::shutdown);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (ManagedChannel channel : channels) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !channel.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+                channel.shutdownNow();
+            }
+        }
+    }
+
+    boolean isShutdown() {
+        return channels.stream().allMatch(ManagedChannel::isShutdown);
+    }
+}
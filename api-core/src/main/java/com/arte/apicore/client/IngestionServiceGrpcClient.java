@@ -2,17 +2,28 @@ package com.arte.apicore.client;
 
 import com.arte.apicore.grpc.*;
 import com.google.protobuf.ByteString;
-import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
+import io.grpc.Context;
+import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 // grpc client for calling ingestion service
 @Component
@@ -25,26 +36,66 @@ public class IngestionServiceGrpcClient {
     @Value("${ingestion.grpc.port:50052}")
     private int grpcPort;
 
+    // dns:///ingestion:50052 or static:///host1:50052,host2:50052, falls back to host/port when empty
+    @Value("${ingestion.grpc.target:}")
+    private String grpcTarget;
+
+    @Value("${ingestion.grpc.channels:1}")
+    private int channelCount;
+
+    @Value("${ingestion.grpc.load-balancing-policy:round_robin}")
+    private String loadBalancingPolicy;
+
+    @Value("${ingestion.grpc.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    // 0 keeps IngestLinkedInJob on plain retries
+    @Value("${ingestion.grpc.hedging-delay-ms:0}")
+    private long hedgingDelayMs;
+
+    @Value("${ingestion.grpc.keepalive-time-seconds:60}")
+    private long keepAliveTimeSeconds;
+
+    @Value("${ingestion.grpc.keepalive-timeout-seconds:20}")
+    private long keepAliveTimeoutSeconds;
+
     @Value("${ingestion.grpc.timeout-seconds:30}")
     private int timeoutSeconds;
 
-    private ManagedChannel channel;
+    @Value("${ingestion.grpc.stream-timeout-seconds:600}")
+    private int streamTimeoutSeconds;
+
+    @Value("${ingestion.grpc.resume-chunk-size:64KB}")
+    private DataSize resumeChunkSize;
+
+    private IngestionChannelPool channelPool;
     private IngestionServiceGrpc.IngestionServiceBlockingStub blockingStub;
+    private IngestionServiceGrpc.IngestionServiceStub asyncStub;
 
     @PostConstruct
     public void init() {
-        log.info("connecting to ingestion service at {}:{}", grpcHost, grpcPort);
-        channel = ManagedChannelBuilder.forAddress(grpcHost, grpcPort)
-                .usePlaintext()
-                .build();
-        blockingStub = IngestionServiceGrpc.newBlockingStub(channel);
+        String target = grpcTarget == null || grpcTarget.isBlank()
+                ? "dns:///" + grpcHost + ":" + grpcPort
+                : grpcTarget;
+        if (target.startsWith(StaticAddressNameResolverProvider.SCHEME + ":")) {
+            StaticAddressNameResolverProvider.registerOnce();
+        }
+        channelPool = IngestionChannelPool.create(
+                target,
+                channelCount,
+                IngestionChannelPool.serviceConfig(loadBalancingPolicy, retryMaxAttempts, Duration.ofMillis(hedgingDelayMs)),
+                retryMaxAttempts,
+                Duration.ofSeconds(keepAliveTimeSeconds),
+                Duration.ofSeconds(keepAliveTimeoutSeconds));
+        blockingStub = IngestionServiceGrpc.newBlockingStub(channelPool);
+        asyncStub = IngestionServiceGrpc.newStub(channelPool);
     }
 
     @PreDestroy
     public void shutdown() {
-        if (channel != null && !channel.isShutdown()) {
+        if (channelPool != null && !channelPool.isShutdown()) {
             try {
-                channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+                channelPool.shutdown(Duration.ofSeconds(5));
             } catch (InterruptedException e) {
                 log.warn("grpc channel shutdown interrupted", e);
                 Thread.currentThread().interrupt();
@@ -54,27 +105,32 @@ public class IngestionServiceGrpcClient {
 
     // triggers github data ingestion for a user
     public IngestGitHubResponse ingestGitHub(UUID userId) {
+        return ingestGitHubAsync(userId).join();
+    }
+
+    // same as ingestGitHub without holding the calling thread, grpc failures complete with success=false
+    public CompletableFuture<IngestGitHubResponse> ingestGitHubAsync(UUID userId) {
         log.info("triggering github ingestion for user: {}", userId);
 
         IngestGitHubRequest request = IngestGitHubRequest.newBuilder()
                 .setUserId(userId.toString())
                 .build();
 
-        try {
-            return blockingStub
-                    .withDeadlineAfter(timeoutSeconds, TimeUnit.SECONDS)
-                    .ingestGitHub(request);
-        } catch (StatusRuntimeException e) {
-            log.error("grpc call failed: {}", e.getStatus(), e);
-            return IngestGitHubResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage("grpc error: " + e.getStatus().getDescription())
-                    .build();
-        }
+        CompletableFuture<IngestGitHubResponse> call = unary(observer -> asyncStub
+                .withDeadlineAfter(timeoutSeconds, TimeUnit.SECONDS)
+                .ingestGitHub(request, observer));
+        return call.exceptionally(e -> IngestGitHubResponse.newBuilder()
+                .setSuccess(false)
+                .setMessage("grpc error: " + logFailure(e).getDescription())
+                .build());
     }
 
     // triggers leetcode data ingestion for a user
     public IngestLeetCodeResponse ingestLeetCode(UUID userId, String leetcodeUsername) {
+        return ingestLeetCodeAsync(userId, leetcodeUsername).join();
+    }
+
+    public CompletableFuture<IngestLeetCodeResponse> ingestLeetCodeAsync(UUID userId, String leetcodeUsername) {
         log.info("triggering leetcode ingestion for user: {} (leetcode: {})", userId, leetcodeUsername);
 
         IngestLeetCodeRequest request = IngestLeetCodeRequest.newBuilder()
@@ -82,17 +138,13 @@ public class IngestionServiceGrpcClient {
                 .setLeetcodeUsername(leetcodeUsername)
                 .build();
 
-        try {
-            return blockingStub
-                    .withDeadlineAfter(timeoutSeconds, TimeUnit.SECONDS)
-                    .ingestLeetCode(request);
-        } catch (StatusRuntimeException e) {
-            log.error("grpc call failed: {}", e.getStatus(), e);
-            return IngestLeetCodeResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage("grpc error: " + e.getStatus().getDescription())
-                    .build();
-        }
+        CompletableFuture<IngestLeetCodeResponse> call = unary(observer -> asyncStub
+                .withDeadlineAfter(timeoutSeconds, TimeUnit.SECONDS)
+                .ingestLeetCode(request, observer));
+        return call.exceptionally(e -> IngestLeetCodeResponse.newBuilder()
+                .setSuccess(false)
+                .setMessage("grpc error: " + logFailure(e).getDescription())
+                .build());
     }
 
     // triggers resume processing for a user
@@ -118,8 +170,105 @@ public class IngestionServiceGrpcClient {
         }
     }
 
+    /**
+     * Uploads a resume over IngestResumeStream in bounded chunks read straight from {@code content},
+     * so only one chunk is in memory at a time. Writes wait for the transport to be ready instead of buffering.
+     */
+    public IngestResumeResponse ingestResume(UUID userId, String filename, InputStream content) {
+        log.info("triggering streamed resume ingestion for user: {}, file: {}", userId, filename);
+
+        CompletableFuture<IngestResumeResponse> result = new CompletableFuture<>();
+        Object readyLock = new Object();
+
+        ClientResponseObserver<ResumeChunk, IngestResumeResponse> responseObserver = new ClientResponseObserver<>() {
+            @Override
+            public void beforeStart(ClientCallStreamObserver<ResumeChunk> requestStream) {
+                requestStream.setOnReadyHandler(() -> {
+                    synchronized (readyLock) {
+                        readyLock.notifyAll();
+                    }
+                });
+            }
+
+            @Override
+            public void onNext(IngestResumeResponse value) {
+                result.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                result.completeExceptionally(t);
+                synchronized (readyLock) {
+                    readyLock.notifyAll();
+                }
+            }
+
+            @Override
+            public void onCompleted() {
+                result.complete(IngestResumeResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage("grpc error: empty response")
+                        .build());
+            }
+        };
+
+        var requestStream = (ClientCallStreamObserver<ResumeChunk>) asyncStub
+                .withDeadlineAfter(timeoutSeconds, TimeUnit.SECONDS)
+                .ingestResumeStream(responseObserver);
+
+        try {
+            requestStream.onNext(ResumeChunk.newBuilder()
+                    .setHeader(ResumeUploadHeader.newBuilder()
+                            .setUserId(userId.toString())
+                            .setFilename(filename))
+                    .build());
+
+            byte[] buffer = new byte[(int) resumeChunkSize.toBytes()];
+            int read;
+            while (!result.isDone() && (read = content.readNBytes(buffer, 0, buffer.length)) > 0) {
+                awaitReady(requestStream, readyLock, result);
+                requestStream.onNext(ResumeChunk.newBuilder()
+                        .setData(ByteString.copyFrom(buffer, 0, read))
+                        .build());
+            }
+            requestStream.onCompleted();
+            return result.get();
+        } catch (IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("resume upload failed for user: {}", userId, e);
+            requestStream.onError(Status.CANCELLED.withCause(e).asRuntimeException());
+            return IngestResumeResponse.newBuilder()
+                    .setSuccess(false)
+                    .setMessage("upload error: " + e.getMessage())
+                    .build();
+        } catch (ExecutionException e) {
+            Status status = Status.fromThrowable(e.getCause());
+            log.error("grpc call failed: {}", status, e.getCause());
+            return IngestResumeResponse.newBuilder()
+                    .setSuccess(false)
+                    .setMessage("grpc error: " + status.getDescription())
+                    .build();
+        }
+    }
+
+    private static void awaitReady(ClientCallStreamObserver<?> requestStream, Object readyLock,
+                                   CompletableFuture<?> result) throws InterruptedException {
+        synchronized (readyLock) {
+            while (!requestStream.isReady() && !result.isDone()) {
+                readyLock.wait(100);
+            }
+        }
+    }
+
     // triggers all ingestion types for a user
     public IngestAllResponse ingestAll(UUID userId, String leetcodeUsername, byte[] resumeContent, String resumeFilename) {
+        return ingestAllAsync(userId, leetcodeUsername, resumeContent, resumeFilename).join();
+    }
+
+    public CompletableFuture<IngestAllResponse> ingestAllAsync(UUID userId, String leetcodeUsername,
+                                                               byte[] resumeContent, String resumeFilename) {
         log.info("triggering full ingestion for user: {}", userId);
 
         var requestBuilder = IngestAllRequest.newBuilder()
@@ -132,18 +281,58 @@ public class IngestionServiceGrpcClient {
             requestBuilder.setResumeContent(ByteString.copyFrom(resumeContent));
             requestBuilder.setResumeFilename(resumeFilename);
         }
+        IngestAllRequest request = requestBuilder.build();
 
-        try {
-            return blockingStub
-                    .withDeadlineAfter(timeoutSeconds, TimeUnit.SECONDS)
-                    .ingestAll(requestBuilder.build());
-        } catch (StatusRuntimeException e) {
-            log.error("grpc call failed: {}", e.getStatus(), e);
-            return IngestAllResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage("grpc error: " + e.getStatus().getDescription())
-                    .build();
+        CompletableFuture<IngestAllResponse> call = unary(observer -> asyncStub
+                .withDeadlineAfter(timeoutSeconds, TimeUnit.SECONDS)
+                .ingestAll(request, observer));
+        return call.exceptionally(e -> IngestAllResponse.newBuilder()
+                .setSuccess(false)
+                .setMessage("grpc error: " + logFailure(e).getDescription())
+                .build());
+    }
+
+    /**
+     * Full ingestion that streams progress events as each source moves along, the last event
+     * (stage INGESTION_COMPLETED) carries the same result {@link #ingestAll} would return.
+     *
+     * @return cancels the call, e.g. when the caller went away
+     */
+    public Runnable ingestAllStream(UUID userId, String leetcodeUsername, StreamObserver<IngestionProgressEvent> observer) {
+        log.info("triggering streamed full ingestion for user: {}", userId);
+
+        var requestBuilder = IngestAllRequest.newBuilder()
+                .setUserId(userId.toString());
+        if (leetcodeUsername != null && !leetcodeUsername.isBlank()) {
+            requestBuilder.setLeetcodeUsername(leetcodeUsername);
         }
+
+        Context.CancellableContext context = Context.current().withCancellation();
+        context.run(() -> asyncStub
+                .withDeadlineAfter(streamTimeoutSeconds, TimeUnit.SECONDS)
+                .ingestAllStream(requestBuilder.build(), observer));
+        return () -> context.cancel(null);
+    }
+
+    /**
+     * Scrapes many LinkedIn jobs at once. Jobs already stored come back first, the rest one event
+     * each as the ingestion service finishes them.
+     *
+     * @return cancels the call, the jobs not started yet are skipped
+     */
+    public Runnable ingestLinkedInJobsBatch(UUID userId, List<String> jobIds, StreamObserver<LinkedInJobBatchEvent> observer) {
+        log.info("triggering batch scrape of {} jobs for user: {}", jobIds.size(), userId);
+
+        IngestLinkedInJobsBatchRequest request = IngestLinkedInJobsBatchRequest.newBuilder()
+                .setUserId(userId.toString())
+                .addAllJobIds(jobIds)
+                .build();
+
+        Context.CancellableContext context = Context.current().withCancellation();
+        context.run(() -> asyncStub
+                .withDeadlineAfter(streamTimeoutSeconds, TimeUnit.SECONDS)
+                .ingestLinkedInJobsBatch(request, observer));
+        return () -> context.cancel(null);
     }
 
     // checks if ingestion service is healthy
@@ -163,23 +352,59 @@ public class IngestionServiceGrpcClient {
 
     // scraping the job raw text (md) from the jobId
     public IngestLinkedInJobResponse ingestLinkedInJob(UUID userId, String jobId) {
-        log.info("Scraping job: {}, for the user: {}", userId, jobId);
+        return ingestLinkedInJobAsync(userId, jobId).join();
+    }
+
+    public CompletableFuture<IngestLinkedInJobResponse> ingestLinkedInJobAsync(UUID userId, String jobId) {
+        log.info("Scraping job: {}, for the user: {}", jobId, userId);
 
         IngestLinkedInJobRequest request  = IngestLinkedInJobRequest.newBuilder()
                 .setUserId(userId.toString())
                 .setJobId(jobId)
                 .build();
-        try {
-            return blockingStub
-                    .withDeadlineAfter(timeoutSeconds, TimeUnit.SECONDS)
-                    .ingestLinkedInJob(request);
 
-        } catch (StatusRuntimeException e) {
-            log.error("grpc call failed: {}", e.getStatus(), e);
+        CompletableFuture<IngestLinkedInJobResponse> call = unary(observer -> asyncStub
+                .withDeadlineAfter(timeoutSeconds, TimeUnit.SECONDS)
+                .ingestLinkedInJob(request, observer));
+        return call.exceptionally(e -> {
+            logFailure(e);
             return IngestLinkedInJobResponse.newBuilder()
                     .setSuccess(false)
                     .setMessage("Job ingestion failed for user")
                     .build();
-        }
+        });
+    }
+
+    /**
+     * Starts a unary call on the async stub and exposes it as a future. The call runs in its own
+     * cancellable context, so completing the future early (or cancelling it) also cancels the call.
+     */
+    private static <T> CompletableFuture<T> unary(Consumer<StreamObserver<T>> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Context.CancellableContext context = Context.current().withCancellation();
+        context.run(() -> call.accept(new StreamObserver<>() {
+            @Override
+            public void onNext(T value) {
+                future.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                future.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                future.completeExceptionally(Status.INTERNAL.withDescription("no response").asRuntimeException());
+            }
+        }));
+        future.whenComplete((result, error) -> context.cancel(null));
+        return future;
+    }
+
+    private static Status logFailure(Throwable error) {
+        Status status = Status.fromThrowable(error);
+        log.error("grpc call failed: {}", status, error);
+        return status;
     }
 }
@@ -0,0 +1,135 @@
+package com.arte.apicore.client;
+
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.NameResolver;
+import io.grpc.NameResolverProvider;
+import io.grpc.NameResolverRegistry;
+import io.grpc.Status;
+import io.grpc.StatusOr;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resolves {@code static:///host1:port,host2:port} targets to a fixed address list, for setups
+ * without a DNS name that returns every ingestion replica (docker compose, local multi-instance runs).
+ */
+class StaticAddressNameResolverProvider extends NameResolverProvider {
+
+    static final String SCHEME = "static";
+
+    private static final AtomicBoolean REGISTERED = new AtomicBoolean();
+
+    /**
+     * Adds the provider to grpc's default registry, only needed (and only done) once a static target is configured.
+     */
+    static void registerOnce() {
+        if (REGISTERED.compareAndSet(false, true)) {
+            NameResolverRegistry.getDefaultRegistry().register(new StaticAddressNameResolverProvider());
+        }
+    }
+
+    @Override
+    protected boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    protected int priority() {
+        return 5;
+    }
+
+    @Override
+    public String getDefaultScheme() {
+        return SCHEME;
+    }
+
+    @Override
+    public NameResolver newNameResolver(URI targetUri, NameResolver.Args args) {
+        if (!SCHEME.equals(targetUri.getScheme())) {
+            return null;
+        }
+        String hosts = targetUri.getAuthority() != null && !targetUri.getAuthority().isEmpty()
+                ? targetUri.getAuthority()
+                : targetUri.getPath().replaceFirst("^/", "");
+        List<InetSocketAddress> addresses = parseAddresses(hosts);
+        Executor offloadExecutor = args.getOffloadExecutor();
+
+        return new NameResolver() {
+            private Listener2 listener;
+            private volatile boolean shutdown;
+
+            @Override
+            public String getServiceAuthority() {
+                InetSocketAddress first = addresses.getFirst();
+                return first.getHostString() + ":" + first.getPort();
+            }
+
+            @Override
+            public void start(Listener2 listener) {
+                this.listener = listener;
+                resolve();
+            }
+
+            // called by the channel when every backend went away, a replica may have moved
+            @Override
+            public void refresh() {
+                resolve();
+            }
+
+            // start/refresh run on the channel's sync context, the DNS lookups must not block it
+            private void resolve() {
+                offloadExecutor.execute(this::lookup);
+            }
+
+            private void lookup() {
+                List<EquivalentAddressGroup> groups = new ArrayList<>();
+                for (InetSocketAddress address : addresses) {
+                    InetSocketAddress resolved = new InetSocketAddress(address.getHostString(), address.getPort());
+                    if (!resolved.isUnresolved()) {
+                        groups.add(new EquivalentAddressGroup(resolved));
+                    }
+                }
+                if (shutdown) {
+                    return;
+                }
+                if (groups.isEmpty()) {
+                    listener.onError(Status.UNAVAILABLE.withDescription("none of " + addresses + " could be resolved"));
+                    return;
+                }
+                listener.onResult(ResolutionResult.newBuilder().setAddressesOrError(StatusOr.fromValue(groups)).build());
+            }
+
+            @Override
+            public void shutdown() {
+                shutdown = true;
+            }
+        };
+    }
+
+    // unresolved on purpose, lookups happen when the channel asks; each one becomes its own
+    // address group so round_robin treats the replicas as separate backends
+    static List<InetSocketAddress> parseAddresses(String hosts) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String entry : hosts.split(",")) {
+            String hostPort = entry.trim();
+            if (hostPort.isEmpty()) {
+                continue;
+            }
+            int colon = hostPort.lastIndexOf(':');
+            if (colon <= 0 || colon == hostPort.length() - 1) {
+                throw new IllegalArgumentException("Expected host:port in static target, got: " + hostPort);
+            }
+            int port = Integer.parseInt(hostPort.substring(colon + 1));
+            addresses.add(InetSocketAddress.createUnresolved(hostPort.substring(0, colon), port));
+        }
+        if (addresses.isEmpty()) {
+            throw new IllegalArgumentException("Static target has no addresses");
+        }
+        return addresses;
+    }
+}
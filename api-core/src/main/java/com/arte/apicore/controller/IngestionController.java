@@ -1,47 +1,67 @@
 package com.arte.apicore.controller;
 
 import com.arte.apicore.client.IngestionServiceGrpcClient;
+import com.arte.apicore.dto.job.IngestionJobDTO;
+import com.arte.apicore.dto.job.IngestionJobRequestDTO;
 import com.arte.apicore.dto.proto.*;
+import com.arte.apicore.entity.IngestionJob;
+import com.arte.apicore.exception.InvalidIngestionRequestException;
 import com.arte.apicore.grpc.*;
 import com.arte.apicore.service.auth.strategy.UserPrincipal;
+import com.arte.apicore.service.ingestion.IngestionJobService;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
+// grpc-backed endpoints return futures, the servlet thread is handed back while ingestion runs
 @RestController
 @RequestMapping("/api/ingestion")
+@Slf4j
 public class IngestionController {
     public final IngestionServiceGrpcClient ingestionServiceGrpcClient;
+    private final IngestionJobService ingestionJobService;
 
-    public IngestionController(IngestionServiceGrpcClient ingestionServiceGrpcClient) {
+    @Value("${ingestion.grpc.stream-timeout-seconds:600}")
+    private long streamTimeoutSeconds;
+
+    public IngestionController(IngestionServiceGrpcClient ingestionServiceGrpcClient,
+                               IngestionJobService ingestionJobService) {
         this.ingestionServiceGrpcClient = ingestionServiceGrpcClient;
+        this.ingestionJobService = ingestionJobService;
     }
 
     @PostMapping("/leetcode")
-    public ResponseEntity<LeetCodeResponseDTO> ingestLeetcode(
+    public CompletableFuture<ResponseEntity<LeetCodeResponseDTO>> ingestLeetcode(
             @RequestBody LeetCodeRequestDTO request, @AuthenticationPrincipal UserPrincipal user
     ) {
-        IngestLeetCodeResponse response = ingestionServiceGrpcClient
-                .ingestLeetCode(UUID.fromString(user.userId()), request.leetcodeUsername());
-
-        return ResponseEntity.ok(
-                new LeetCodeResponseDTO(response.getSuccess(), response.getMessage(), response.getProblemsSolved())
-        );
+        return ingestionServiceGrpcClient
+                .ingestLeetCodeAsync(UUID.fromString(user.userId()), request.leetcodeUsername())
+                .thenApply(response -> ResponseEntity.ok(
+                        new LeetCodeResponseDTO(response.getSuccess(), response.getMessage(), response.getProblemsSolved())
+                ));
     }
 
 
     @GetMapping("/github")
-    public ResponseEntity<GitHubResponseDTO> ingestGithub(
+    public CompletableFuture<ResponseEntity<GitHubResponseDTO>> ingestGithub(
             @AuthenticationPrincipal UserPrincipal user) {
-        IngestGitHubResponse response = ingestionServiceGrpcClient.ingestGitHub(UUID.fromString(user.userId()));
-        return ResponseEntity.ok(
-                new GitHubResponseDTO(response.getSuccess(), response.getMessage(), response.getReposProcessed(), response.getRepoNamesList())
-        );
+        return ingestionServiceGrpcClient.ingestGitHubAsync(UUID.fromString(user.userId()))
+                .thenApply(response -> ResponseEntity.ok(
+                        new GitHubResponseDTO(response.getSuccess(), response.getMessage(), response.getReposProcessed(), response.getRepoNamesList())
+                ));
     }
 
     @PostMapping(path = "/resume", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -49,29 +69,118 @@ public class IngestionController {
             @RequestPart("file") MultipartFile file,
             @AuthenticationPrincipal UserPrincipal user
     ) throws IOException {
-        IngestResumeResponse response = ingestionServiceGrpcClient.ingestResume(
-                UUID.fromString(user.userId()),
-                file.getOriginalFilename(),
-                file.getBytes()
-        );
+        IngestResumeResponse response;
+        try (var content = file.getInputStream()) {
+            response = ingestionServiceGrpcClient.ingestResume(
+                    UUID.fromString(user.userId()),
+                    file.getOriginalFilename(),
+                    content
+            );
+        }
         return ResponseEntity.ok(
                 new ResumeResponseDTO(response.getSuccess(), response.getMessage(), response.getWordCount())
         );
     }
 
     @PostMapping("/linkedin")
-    public ResponseEntity<LinkedInJobResponseDTO> ingestLinkedInJob
+    public CompletableFuture<ResponseEntity<LinkedInJobResponseDTO>> ingestLinkedInJob
             (@RequestBody LinkedInJobRequestDTO request,
              @AuthenticationPrincipal UserPrincipal user
     ) {
-        IngestLinkedInJobResponse response = ingestionServiceGrpcClient.ingestLinkedInJob(
+        return ingestionServiceGrpcClient.ingestLinkedInJobAsync(
+                        UUID.fromString(user.userId()),
+                        request.jobId()
+                )
+                .thenApply(response -> ResponseEntity.ok(
+                        new LinkedInJobResponseDTO(response.getSuccess(), response.getMessage())
+                ));
+    }
+
+    // relays the grpc progress stream of a full ingestion as server-sent events
+    @GetMapping(path = "/full/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter ingestAllStream(
+            @RequestParam(required = false) String leetcodeUsername,
+            @AuthenticationPrincipal UserPrincipal user
+    ) {
+        SseEmitter emitter = new SseEmitter(TimeUnit.SECONDS.toMillis(streamTimeoutSeconds));
+
+        Runnable cancel = ingestionServiceGrpcClient.ingestAllStream(
                 UUID.fromString(user.userId()),
-                request.jobId()
-        );
-        return ResponseEntity.ok(
-                new LinkedInJobResponseDTO(response.getSuccess(), response.getMessage())
-        );
+                leetcodeUsername,
+                sseRelay(emitter, event -> event.getStage().name().toLowerCase(), IngestionProgressDTO::from));
+        return cancelOnClose(emitter, cancel);
+    }
+
+    // scrapes a list of linkedin jobs, one server-sent event per job as it completes
+    @PostMapping(path = "/linkedin/batch", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter ingestLinkedInJobsBatch(
+            @RequestBody LinkedInJobBatchRequestDTO request,
+            @AuthenticationPrincipal UserPrincipal user
+    ) {
+        if (request.jobIds() == null || request.jobIds().isEmpty()) {
+            throw new InvalidIngestionRequestException("jobIds must not be empty");
+        }
+        SseEmitter emitter = new SseEmitter(TimeUnit.SECONDS.toMillis(streamTimeoutSeconds));
+
+        Runnable cancel = ingestionServiceGrpcClient.ingestLinkedInJobsBatch(
+                UUID.fromString(user.userId()),
+                request.jobIds(),
+                sseRelay(emitter, event -> "job", LinkedInJobBatchEventDTO::from));
+        return cancelOnClose(emitter, cancel);
     }
 
+    private <T> StreamObserver<T> sseRelay(SseEmitter emitter, Function<T, String> eventName, Function<T, ?> toData) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(T event) {
+                try {
+                    emitter.send(SseEmitter.event()
+                            .name(eventName.apply(event))
+                            .data(toData.apply(event), MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    // client is gone, the emitter callbacks cancel the grpc call
+                    log.debug("dropping stream event: {}", e.getMessage());
+                }
+            }
 
+            @Override
+            public void onError(Throwable t) {
+                emitter.completeWithError(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                emitter.complete();
+            }
+        };
+    }
+
+    private static SseEmitter cancelOnClose(SseEmitter emitter, Runnable cancel) {
+        emitter.onTimeout(cancel);
+        emitter.onError(e -> cancel.run());
+        emitter.onCompletion(cancel);
+        return emitter;
+    }
+
+    // queues the ingestion and returns right away, poll the Location for status and result
+    @PostMapping("/jobs")
+    public ResponseEntity<IngestionJobDTO> submitJob(
+            @RequestBody IngestionJobRequestDTO request,
+            @AuthenticationPrincipal UserPrincipal user
+    ) {
+        IngestionJob job = ingestionJobService.submit(
+                UUID.fromString(user.userId()), request.type(), request.leetcodeUsername(), request.jobId());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/ingestion/jobs/" + job.getId()))
+                .body(IngestionJobDTO.from(job));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<IngestionJobDTO> getJob(
+            @PathVariable UUID jobId,
+            @AuthenticationPrincipal UserPrincipal user
+    ) {
+        IngestionJob job = ingestionJobService.getJob(UUID.fromString(user.userId()), jobId);
+        return ResponseEntity.ok(IngestionJobDTO.from(job));
+    }
 }
@@ -0,0 +1,33 @@
+package com.arte.apicore.dto.job;
+
+import com.arte.apicore.entity.IngestionJob;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+public record IngestionJobDTO(
+        UUID id,
+        String type,
+        String status,
+        int attempts,
+        Map<String, Object> result,
+        String error,
+        Instant createdAt,
+        Instant updatedAt,
+        Instant finishedAt
+) {
+    public static IngestionJobDTO from(IngestionJob job) {
+        return new IngestionJobDTO(
+                job.getId(),
+                job.getJobType().name(),
+                job.getStatus().name(),
+                job.getAttempts(),
+                job.getResult(),
+                job.getError(),
+                job.getCreatedAt(),
+                job.getUpdatedAt(),
+                job.getFinishedAt()
+        );
+    }
+}
@@ -0,0 +1,9 @@
+package com.arte.apicore.dto.job;
+
+// leetcodeUsername is needed for LEETCODE (optional for FULL), jobId for LINKEDIN
+public record IngestionJobRequestDTO(
+        String type,
+        String leetcodeUsername,
+        String jobId
+) {
+}
@@ -0,0 +1,27 @@
+package com.arte.apicore.dto.proto;
+
+import com.arte.apicore.grpc.IngestionProgressEvent;
+
+import java.util.Map;
+
+// success and timingsMs are only set on the final event
+public record IngestionProgressDTO(
+        String source,
+        String stage,
+        String message,
+        long timestamp,
+        Boolean success,
+        Map<String, Long> timingsMs
+) {
+    public static IngestionProgressDTO from(IngestionProgressEvent event) {
+        boolean hasResult = event.hasResult();
+        return new IngestionProgressDTO(
+                event.getSource(),
+                event.getStage().name(),
+                event.getMessage(),
+                event.getTimestamp(),
+                hasResult ? event.getResult().getSuccess() : null,
+                hasResult ? event.getResult().getSourceTimingsMsMap() : null
+        );
+    }
+}
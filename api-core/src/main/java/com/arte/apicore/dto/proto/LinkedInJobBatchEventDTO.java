@@ -0,0 +1,22 @@
+package com.arte.apicore.dto.proto;
+
+import com.arte.apicore.grpc.LinkedInJobBatchEvent;
+
+// status is EXISTING, SCRAPED, NOT_FOUND or FAILED, message holds the reason for the last two
+public record LinkedInJobBatchEventDTO(
+        String jobId,
+        String status,
+        String message,
+        int completed,
+        int total
+) {
+    public static LinkedInJobBatchEventDTO from(LinkedInJobBatchEvent event) {
+        return new LinkedInJobBatchEventDTO(
+                event.getJobId(),
+                event.getStatus().name().replaceFirst("^JOB_", ""),
+                event.getMessage(),
+                event.getCompleted(),
+                event.getTotal()
+        );
+    }
+}
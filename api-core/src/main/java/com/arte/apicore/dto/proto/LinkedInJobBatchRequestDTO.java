@@ -0,0 +1,8 @@
+package com.arte.apicore.dto.proto;
+
+import java.util.List;
+
+public record LinkedInJobBatchRequestDTO(
+        List<String> jobIds
+) {
+}
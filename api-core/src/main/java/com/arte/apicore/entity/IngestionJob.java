@@ -0,0 +1,74 @@
+package com.arte.apicore.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+// queued ingestion work, api-core only inserts and reads these, the ingestion workers run them
+@SuppressWarnings("JpaDataSourceORMInspection")
+@Entity
+@Table(name = "ingestion_jobs")
+@Getter
+public class IngestionJob {
+
+    public enum Type { GITHUB, LEETCODE, LINKEDIN, FULL }
+
+    public enum Status { PENDING, RUNNING, SUCCEEDED, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "job_type", nullable = false)
+    private Type jobType;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "payload", columnDefinition = "jsonb", nullable = false)
+    private Map<String, Object> payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "attempts", insertable = false, updatable = false)
+    private int attempts;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "result", columnDefinition = "jsonb", insertable = false, updatable = false)
+    private Map<String, Object> result;
+
+    @Column(name = "error", insertable = false, updatable = false)
+    private String error;
+
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private Instant updatedAt;
+
+    @Column(name = "finished_at", insertable = false, updatable = false)
+    private Instant finishedAt;
+
+    protected IngestionJob() {}
+
+    public IngestionJob(UUID userId, Type jobType, Map<String, Object> payload) {
+        this.userId = userId;
+        this.jobType = jobType;
+        this.payload = payload;
+        this.status = Status.PENDING;
+    }
+
+    public boolean isActive() {
+        return status == Status.PENDING || status == Status.RUNNING;
+    }
+}
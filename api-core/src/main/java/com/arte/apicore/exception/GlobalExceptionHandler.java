@@ -28,4 +28,22 @@ public class GlobalExceptionHandler {
                 "timestamp", Instant.now().toString()
         ));
     }
+
+    @ExceptionHandler(IngestionJobNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleIngestionJobNotFound(IngestionJobNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "error", "job_not_found",
+                "message", ex.getMessage(),
+                "timestamp", Instant.now().toString()
+        ));
+    }
+
+    @ExceptionHandler(InvalidIngestionRequestException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidIngestionRequest(InvalidIngestionRequestException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
+                "error", "bad_request",
+                "message", ex.getMessage(),
+                "timestamp", Instant.now().toString()
+        ));
+    }
 }
@@ -0,0 +1,11 @@
+package com.arte.apicore.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class IngestionJobNotFoundException extends RuntimeException {
+    public IngestionJobNotFoundException(String message) {
+        super(message);
+    }
+}
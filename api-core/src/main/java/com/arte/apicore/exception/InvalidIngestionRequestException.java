@@ -0,0 +1,11 @@
+package com.arte.apicore.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidIngestionRequestException extends RuntimeException {
+    public InvalidIngestionRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.arte.apicore.repository;
+
+import com.arte.apicore.entity.IngestionJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface IngestionJobRepository extends JpaRepository<IngestionJob, UUID> {
+    Optional<IngestionJob> findByIdAndUserId(UUID id, UUID userId);
+    List<IngestionJob> findByUserIdAndJobTypeAndStatusIn(UUID userId, IngestionJob.Type jobType,
+                                                         Collection<IngestionJob.Status> statuses);
+}
@@ -0,0 +1,105 @@
+package com.arte.apicore.service.ingestion;
+
+import com.arte.apicore.entity.IngestionJob;
+import com.arte.apicore.exception.IngestionJobNotFoundException;
+import com.arte.apicore.exception.InvalidIngestionRequestException;
+import com.arte.apicore.repository.IngestionJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Submit side of the ingestion job queue. Jobs are plain rows in {@code ingestion_jobs},
+ * the ingestion service's workers claim and run them, callers poll {@link #getJob} for the outcome.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IngestionJobService {
+
+    private final IngestionJobRepository ingestionJobRepository;
+
+    /**
+     * Queues a job, or hands back the one already waiting/running for the same user, type and payload
+     * so repeated clicks don't pile up duplicate work. Not one transaction on purpose: a concurrent submit
+     * of the same job loses on {@code uq_ingestion_jobs_active}, which aborts the insert's transaction,
+     * and the winner's job is then looked up in a fresh one.
+     */
+    public IngestionJob submit(UUID userId, String type, String leetcodeUsername, String jobId) {
+        IngestionJob.Type jobType = parseType(type);
+        Map<String, Object> payload = buildPayload(jobType, leetcodeUsername, jobId);
+
+        Optional<IngestionJob> active = findActive(userId, jobType, payload);
+        if (active.isPresent()) {
+            log.debug("reusing active {} job {} for user {}", jobType, active.get().getId(), userId);
+            return active.get();
+        }
+
+        IngestionJob job;
+        try {
+            job = ingestionJobRepository.saveAndFlush(new IngestionJob(userId, jobType, payload));
+        } catch (DataIntegrityViolationException e) {
+            return findActive(userId, jobType, payload).orElseThrow(() -> e);
+        }
+        log.info("queued {} ingestion job {} for user {}", jobType, job.getId(), userId);
+        return job;
+    }
+
+    private Optional<IngestionJob> findActive(UUID userId, IngestionJob.Type jobType, Map<String, Object> payload) {
+        return ingestionJobRepository.findByUserIdAndJobTypeAndStatusIn(
+                        userId, jobType, EnumSet.of(IngestionJob.Status.PENDING, IngestionJob.Status.RUNNING))
+                .stream()
+                .filter(job -> payload.equals(job.getPayload()))
+                .findFirst();
+    }
+
+    // scoped to the owner, other users' job ids look the same as unknown ones
+    @Transactional(readOnly = true)
+    public IngestionJob getJob(UUID userId, UUID jobId) {
+        return ingestionJobRepository.findByIdAndUserId(jobId, userId)
+                .orElseThrow(() -> new IngestionJobNotFoundException("Ingestion job not found: " + jobId));
+    }
+
+    private IngestionJob.Type parseType(String type) {
+        if (type == null || type.isBlank()) {
+            throw new InvalidIngestionRequestException("job type is required");
+        }
+        try {
+            return IngestionJob.Type.valueOf(type.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidIngestionRequestException("unknown job type: " + type);
+        }
+    }
+
+    private Map<String, Object> buildPayload(IngestionJob.Type type, String leetcodeUsername, String jobId) {
+        Map<String, Object> payload = new HashMap<>();
+        switch (type) {
+            case LEETCODE -> payload.put("leetcodeUsername", require(leetcodeUsername, "leetcodeUsername"));
+            case LINKEDIN -> payload.put("jobId", require(jobId, "jobId"));
+            case FULL -> {
+                if (leetcodeUsername != null && !leetcodeUsername.isBlank()) {
+                    payload.put("leetcodeUsername", leetcodeUsername);
+                }
+            }
+            case GITHUB -> {
+            }
+        }
+        return payload;
+    }
+
+    private static String require(String value, String name) {
+        if (value == null || value.isBlank()) {
+            throw new InvalidIngestionRequestException(name + " is required for this job type");
+        }
+        return value;
+    }
+}
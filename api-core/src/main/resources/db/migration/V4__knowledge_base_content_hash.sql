@@ -0,0 +1,3 @@
+-- fingerprint of content + metadata, ingestion skips the upsert (and the updated_at trigger) when it matches
+ALTER TABLE user_knowledge_base
+    ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
@@ -0,0 +1,43 @@
+-- queue of ingestion work, api-core inserts PENDING rows and ingestion workers claim them with FOR UPDATE SKIP LOCKED
+CREATE TABLE IF NOT EXISTS ingestion_jobs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    job_type VARCHAR(16) NOT NULL,                  -- GITHUB, LEETCODE, LINKEDIN, FULL
+    payload JSONB NOT NULL DEFAULT '{}',
+    status VARCHAR(16) NOT NULL DEFAULT 'PENDING',  -- PENDING, RUNNING, SUCCEEDED, FAILED
+    attempts INT NOT NULL DEFAULT 0,
+    max_attempts INT NOT NULL DEFAULT 3,
+    run_after TIMESTAMP NOT NULL DEFAULT NOW(),     -- pushed back on retry
+    locked_by VARCHAR,
+    locked_at TIMESTAMP,
+    result JSONB,
+    error TEXT,
+    created_at TIMESTAMP DEFAULT NOW(),
+    updated_at TIMESTAMP DEFAULT NOW(),
+    finished_at TIMESTAMP
+);
+
+-- only PENDING rows are polled, keep the claim scan on a small partial index
+CREATE INDEX IF NOT EXISTS idx_ingestion_jobs_pending
+    ON ingestion_jobs(run_after)
+    WHERE status = 'PENDING';
+
+-- lease expiry scan for workers that died mid-job
+CREATE INDEX IF NOT EXISTS idx_ingestion_jobs_running
+    ON ingestion_jobs(locked_at)
+    WHERE status = 'RUNNING';
+
+-- at most one outstanding job per (user, type, payload): enqueues race under READ COMMITTED,
+-- the loser hits this index (ON CONFLICT DO NOTHING on the worker side) instead of queueing a duplicate
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ingestion_jobs_active
+    ON ingestion_jobs(user_id, job_type, payload)
+    WHERE status IN ('PENDING', 'RUNNING');
+
+CREATE INDEX IF NOT EXISTS idx_ingestion_jobs_user_id
+    ON ingestion_jobs(user_id, created_at DESC);
+
+DROP TRIGGER IF EXISTS update_ingestion_jobs_updated_at ON ingestion_jobs;
+CREATE TRIGGER update_ingestion_jobs_updated_at
+    BEFORE UPDATE ON ingestion_jobs
+    FOR EACH ROW
+    EXECUTE FUNCTION update_updated_at_column();
@@ -0,0 +1,3 @@
+-- keyset pages of stale profiles for the ingestion refresher: WHERE last_ingested_at < ? ORDER BY last_ingested_at, user_id
+CREATE INDEX IF NOT EXISTS idx_user_info_last_ingested
+    ON user_info(last_ingested_at, user_id);
@@ -0,0 +1,8 @@
+-- leases held by ingestion replicas while they ingest one (user, source), see IngestionLeaseLock.
+-- a lease that isn't renewed before expires_at can be taken over, so a crashed replica never blocks a user for long
+CREATE TABLE IF NOT EXISTS ingestion_locks (
+    lock_key VARCHAR PRIMARY KEY,   -- <user_id>:<source>
+    owner VARCHAR NOT NULL,
+    acquired_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    expires_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,10 @@
+-- linkedin job ids that recently turned out to have no usable posting, see LinkedInJobMissCache.
+-- shared by the ingestion replicas so a bad id is only scraped once per expiry, rows past expires_at are ignored and overwritten
+CREATE TABLE IF NOT EXISTS linkedin_job_misses (
+    job_id VARCHAR PRIMARY KEY,
+    reason VARCHAR NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_linkedin_job_misses_expires_at ON linkedin_job_misses(expires_at);
@@ -0,0 +1,113 @@
+package com.arte.apicore.client;
+
+import com.arte.apicore.grpc.*;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IngestionChannelPoolTest {
+
+    private final List<Server> servers = new ArrayList<>();
+    private final List<ManagedChannel> channels = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (ManagedChannel channel : channels) {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+        for (Server server : servers) {
+            server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void newCall_spreadsCallsOverChannels() throws Exception {
+        HealthService first = new HealthService(0);
+        HealthService second = new HealthService(0);
+        var pool = new IngestionChannelPool(List.of(channelTo(first), channelTo(second)));
+        var stub = IngestionServiceGrpc.newBlockingStub(pool);
+
+        for (int i = 0; i < 4; i++) {
+            stub.healthCheck(IngestionHealthRequest.getDefaultInstance());
+        }
+
+        assertThat(first.calls.get()).isEqualTo(2);
+        assertThat(second.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void serviceConfig_retriesHealthCheckOnUnavailable() throws Exception {
+        HealthService service = new HealthService(2);
+        String name = start(service);
+        ManagedChannel channel = InProcessChannelBuilder.forName(name)
+                .directExecutor()
+                .defaultServiceConfig(IngestionChannelPool.serviceConfig("pick_first", 3, Duration.ZERO))
+                .enableRetry()
+                .build();
+        channels.add(channel);
+
+        var response = IngestionServiceGrpc.newBlockingStub(channel)
+                .healthCheck(IngestionHealthRequest.getDefaultInstance());
+
+        assertThat(response.getHealthy()).isTrue();
+        assertThat(service.calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void parseAddresses_staticTarget() {
+        List<InetSocketAddress> addresses =
+                StaticAddressNameResolverProvider.parseAddresses("ingestion-1:50052, ingestion-2:50053");
+
+        assertThat(addresses).extracting(InetSocketAddress::getHostString).containsExactly("ingestion-1", "ingestion-2");
+        assertThat(addresses).extracting(InetSocketAddress::getPort).containsExactly(50052, 50053);
+        assertThatThrownBy(() -> StaticAddressNameResolverProvider.parseAddresses("ingestion-1"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ManagedChannel channelTo(HealthService service) throws Exception {
+        ManagedChannel channel = InProcessChannelBuilder.forName(start(service)).directExecutor().build();
+        channels.add(channel);
+        return channel;
+    }
+
+    private String start(HealthService service) throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        servers.add(InProcessServerBuilder.forName(name).directExecutor().addService(service).build().start());
+        return name;
+    }
+
+    // answers UNAVAILABLE for the first few calls, healthy after that
+    private static class HealthService extends IngestionServiceGrpc.IngestionServiceImplBase {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final int failures;
+
+        HealthService(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public void healthCheck(IngestionHealthRequest request, StreamObserver<IngestionHealthResponse> responseObserver) {
+            if (calls.incrementAndGet() <= failures) {
+                responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+                return;
+            }
+            responseObserver.onNext(IngestionHealthResponse.newBuilder().setHealthy(true).build());
+            responseObserver.onCompleted();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.arte.apicore.client;
 
+import com.google.protobuf.ByteString;
 import io.grpc.ManagedChannel;
 import io.grpc.Server;
 import io.grpc.inprocess.InProcessChannelBuilder;
@@ -9,9 +10,13 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 
 import com.arte.apicore.grpc.*;
 
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -44,10 +49,13 @@ class IngestionServiceGrpcClientTest {
         ReflectionTestUtils.setField(client, "grpcHost", "localhost");
         ReflectionTestUtils.setField(client, "grpcPort", 0);
         ReflectionTestUtils.setField(client, "timeoutSeconds", 5);
+        ReflectionTestUtils.setField(client, "streamTimeoutSeconds", 5);
+        ReflectionTestUtils.setField(client, "resumeChunkSize", DataSize.ofBytes(4));
         
         // inject the test channel directly
-        ReflectionTestUtils.setField(client, "channel", channel);
+        ReflectionTestUtils.setField(client, "channelPool", new IngestionChannelPool(List.of(channel)));
         ReflectionTestUtils.setField(client, "blockingStub", IngestionServiceGrpc.newBlockingStub(channel));
+        ReflectionTestUtils.setField(client, "asyncStub", IngestionServiceGrpc.newStub(channel));
     }
 
     @AfterEach
@@ -67,6 +75,28 @@ class IngestionServiceGrpcClientTest {
         assertThat(response.getMessage()).isEqualTo("github data ingested");
     }
 
+    @Test
+    void ingestGitHubAsync_completesWithResponse() {
+        UUID userId = UUID.randomUUID();
+        mockService.setGitHubResponse(true, "github data ingested", 5);
+
+        var response = client.ingestGitHubAsync(userId).join();
+
+        assertThat(response.getSuccess()).isTrue();
+        assertThat(response.getReposProcessed()).isEqualTo(5);
+    }
+
+    @Test
+    void ingestLinkedInJobAsync_grpcError_completesWithFailure() {
+        UUID userId = UUID.randomUUID();
+
+        // the mock service doesn't implement IngestLinkedInJob, so the call fails with UNIMPLEMENTED
+        var response = client.ingestLinkedInJobAsync(userId, "123").join();
+
+        assertThat(response.getSuccess()).isFalse();
+        assertThat(response.getMessage()).isEqualTo("Job ingestion failed for user");
+    }
+
     @Test
     void ingestLeetCode_success() {
         UUID userId = UUID.randomUUID();
@@ -90,6 +120,21 @@ class IngestionServiceGrpcClientTest {
         assertThat(response.getMessage()).isEqualTo("resume processed");
     }
 
+    @Test
+    void ingestResume_streamsChunks() {
+        UUID userId = UUID.randomUUID();
+        byte[] pdfData = "fake pdf content".getBytes();
+        mockService.setResumeResponse(true, "resume processed", 500);
+
+        var response = client.ingestResume(userId, "resume.pdf", new ByteArrayInputStream(pdfData));
+
+        assertThat(response.getSuccess()).isTrue();
+        assertThat(response.getWordCount()).isEqualTo(500);
+        assertThat(mockService.uploadedFilename).isEqualTo("resume.pdf");
+        assertThat(mockService.uploadedChunks).isEqualTo(4);
+        assertThat(mockService.uploaded.toStringUtf8()).isEqualTo("fake pdf content");
+    }
+
     @Test
     void ingestAll_success() {
         UUID userId = UUID.randomUUID();
@@ -131,6 +176,62 @@ class IngestionServiceGrpcClientTest {
         assertThat(response.getMessage()).isEqualTo("user not found");
     }
 
+    @Test
+    void ingestAllStream_relaysProgressEvents() {
+        UUID userId = UUID.randomUUID();
+        mockService.setAllResponse(true, "all data ingested");
+        List<IngestionProgressEvent> events = new ArrayList<>();
+        boolean[] completed = {false};
+
+        client.ingestAllStream(userId, "leetcodeuser", new StreamObserver<>() {
+            @Override
+            public void onNext(IngestionProgressEvent value) {
+                events.add(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onCompleted() {
+                completed[0] = true;
+            }
+        });
+
+        assertThat(completed[0]).isTrue();
+        assertThat(events).extracting(IngestionProgressEvent::getStage)
+                .containsExactly(IngestionStage.SOURCE_STARTED, IngestionStage.INGESTION_COMPLETED);
+        assertThat(events.getLast().getResult().getMessage()).isEqualTo("all data ingested");
+    }
+
+    @Test
+    void ingestLinkedInJobsBatch_relaysOneEventPerJob() {
+        UUID userId = UUID.randomUUID();
+        List<LinkedInJobBatchEvent> events = new ArrayList<>();
+        boolean[] completed = {false};
+
+        client.ingestLinkedInJobsBatch(userId, List.of("4000000001", "4000000002"), new StreamObserver<>() {
+            @Override
+            public void onNext(LinkedInJobBatchEvent value) {
+                events.add(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onCompleted() {
+                completed[0] = true;
+            }
+        });
+
+        assertThat(completed[0]).isTrue();
+        assertThat(events).extracting(LinkedInJobBatchEvent::getJobId).containsExactly("4000000001", "4000000002");
+        assertThat(events.getLast().getCompleted()).isEqualTo(2);
+    }
+
     // mock grpc service for testing
     private static class MockIngestionService extends IngestionServiceGrpc.IngestionServiceImplBase {
         private IngestGitHubResponse gitHubResponse;
@@ -138,6 +239,9 @@ class IngestionServiceGrpcClientTest {
         private IngestResumeResponse resumeResponse;
         private IngestAllResponse allResponse;
         private IngestionHealthResponse healthResponse;
+        private String uploadedFilename;
+        private int uploadedChunks;
+        private ByteString uploaded = ByteString.EMPTY;
 
         void setGitHubResponse(boolean success, String message, int reposProcessed) {
             this.gitHubResponse = IngestGitHubResponse.newBuilder()
@@ -195,12 +299,64 @@ class IngestionServiceGrpcClientTest {
             responseObserver.onCompleted();
         }
 
+        @Override
+        public StreamObserver<ResumeChunk> ingestResumeStream(StreamObserver<IngestResumeResponse> responseObserver) {
+            return new StreamObserver<>() {
+                @Override
+                public void onNext(ResumeChunk chunk) {
+                    if (chunk.hasHeader()) {
+                        uploadedFilename = chunk.getHeader().getFilename();
+                    } else {
+                        uploadedChunks++;
+                        uploaded = uploaded.concat(chunk.getData());
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    responseObserver.onNext(resumeResponse);
+                    responseObserver.onCompleted();
+                }
+            };
+        }
+
         @Override
         public void ingestAll(IngestAllRequest request, StreamObserver<IngestAllResponse> responseObserver) {
             responseObserver.onNext(allResponse);
             responseObserver.onCompleted();
         }
 
+        @Override
+        public void ingestLinkedInJobsBatch(IngestLinkedInJobsBatchRequest request,
+                                            StreamObserver<LinkedInJobBatchEvent> responseObserver) {
+            for (int i = 0; i < request.getJobIdsCount(); i++) {
+                responseObserver.onNext(LinkedInJobBatchEvent.newBuilder()
+                        .setJobId(request.getJobIds(i))
+                        .setStatus(LinkedInJobBatchStatus.JOB_SCRAPED)
+                        .setCompleted(i + 1)
+                        .setTotal(request.getJobIdsCount())
+                        .build());
+            }
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void ingestAllStream(IngestAllRequest request, StreamObserver<IngestionProgressEvent> responseObserver) {
+            responseObserver.onNext(IngestionProgressEvent.newBuilder()
+                    .setSource("github")
+                    .setStage(IngestionStage.SOURCE_STARTED)
+                    .build());
+            responseObserver.onNext(IngestionProgressEvent.newBuilder()
+                    .setStage(IngestionStage.INGESTION_COMPLETED)
+                    .setResult(allResponse)
+                    .build());
+            responseObserver.onCompleted();
+        }
+
         @Override
         public void healthCheck(IngestionHealthRequest request, StreamObserver<IngestionHealthResponse> responseObserver) {
             responseObserver.onNext(healthResponse);
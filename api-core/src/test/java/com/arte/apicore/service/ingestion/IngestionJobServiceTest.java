@@ -0,0 +1,90 @@
+package com.arte.apicore.service.ingestion;
+
+import com.arte.apicore.entity.IngestionJob;
+import com.arte.apicore.exception.IngestionJobNotFoundException;
+import com.arte.apicore.exception.InvalidIngestionRequestException;
+import com.arte.apicore.repository.IngestionJobRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngestionJobServiceTest {
+
+    @Mock
+    private IngestionJobRepository ingestionJobRepository;
+
+    @InjectMocks
+    private IngestionJobService ingestionJobService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void submit_queuesPendingJobWithPayload() {
+        when(ingestionJobRepository.findByUserIdAndJobTypeAndStatusIn(eq(userId), eq(IngestionJob.Type.LEETCODE), anyCollection()))
+                .thenReturn(List.of());
+        when(ingestionJobRepository.saveAndFlush(any(IngestionJob.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        IngestionJob job = ingestionJobService.submit(userId, "leetcode", "lc", null);
+
+        assertThat(job.getStatus()).isEqualTo(IngestionJob.Status.PENDING);
+        assertThat(job.getPayload()).isEqualTo(Map.of("leetcodeUsername", "lc"));
+    }
+
+    @Test
+    void submit_reusesActiveJobWithSamePayload() {
+        IngestionJob existing = new IngestionJob(userId, IngestionJob.Type.GITHUB, Map.of());
+        when(ingestionJobRepository.findByUserIdAndJobTypeAndStatusIn(eq(userId), eq(IngestionJob.Type.GITHUB), anyCollection()))
+                .thenReturn(List.of(existing));
+
+        IngestionJob job = ingestionJobService.submit(userId, "GITHUB", null, null);
+
+        assertThat(job).isSameAs(existing);
+        verify(ingestionJobRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void submit_concurrentDuplicate_returnsWinningJob() {
+        IngestionJob winner = new IngestionJob(userId, IngestionJob.Type.GITHUB, Map.of());
+        when(ingestionJobRepository.findByUserIdAndJobTypeAndStatusIn(eq(userId), eq(IngestionJob.Type.GITHUB), anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(winner));
+        when(ingestionJobRepository.saveAndFlush(any(IngestionJob.class)))
+                .thenThrow(new DataIntegrityViolationException("uq_ingestion_jobs_active"));
+
+        IngestionJob job = ingestionJobService.submit(userId, "GITHUB", null, null);
+
+        assertThat(job).isSameAs(winner);
+    }
+
+    @Test
+    void submit_rejectsMissingPayload() {
+        assertThatThrownBy(() -> ingestionJobService.submit(userId, "linkedin", null, null))
+                .isInstanceOf(InvalidIngestionRequestException.class)
+                .hasMessageContaining("jobId");
+        assertThatThrownBy(() -> ingestionJobService.submit(userId, "resume", null, null))
+                .isInstanceOf(InvalidIngestionRequestException.class);
+    }
+
+    @Test
+    void getJob_otherUsersJob_isNotFound() {
+        UUID jobId = UUID.randomUUID();
+        when(ingestionJobRepository.findByIdAndUserId(jobId, userId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> ingestionJobService.getJob(userId, jobId))
+                .isInstanceOf(IngestionJobNotFoundException.class);
+    }
+}
@@ -3,22 +3,73 @@ package com.arte.ingestion.client;
 
 import com.arte.ingestion.dto.github.GitHubGraphQLResponse;
 import com.arte.ingestion.dto.github.GitHubReadmeResponse;
+import com.arte.ingestion.dto.github.ReadmeBlob;
+import com.arte.ingestion.dto.github.ReadmeContent;
+import com.arte.ingestion.dto.github.RepositoryNode;
+import com.arte.ingestion.exception.UpstreamUnavailableException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Component
 @Slf4j
 public class GitHubGraphQLClient {
 
-    private static final String GITHUB_GRAPHQL_URL = "https://api.github.com/graphql";
-    private static final String GITHUB_REST_URL = "https://api.github.com";
+    private static final String GITHUB_GRAPHQL_PATH = "/graphql";
+    private static final String GITHUB_README_PATH = "/repos/{owner}/{repo}/readme";
 
+    // pulls HEAD:README.md as a blob alongside the repo metadata, REST is only the fallback
+    private static final String INLINE_README_FIELD = """
+                                readme: object(expression: "HEAD:README.md") {
+                                    ... on Blob {
+                                        oid
+                                        text
+                                    }
+                                }
+            """;
+
+    @Value("${ingestion.github.inline-readme:true}")
+    private boolean inlineReadme;
+
+    @Value("${ingestion.github.etag-cache-size:10000}")
+    private int etagCacheSize;
+
+    // shared pooled client, see GitHubClientConfig
+    private final WebClient webClient;
+
+    // ETag/Last-Modified (or blob oid) + README text per (token scope, repo), LRU bounded
+    private final Map<String, CachedReadme> readmeCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedReadme> eldest) {
+                    return size() > etagCacheSize;
+                }
+            });
+
+    public GitHubGraphQLClient(@Qualifier("gitHubWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    /**
+     * Fetches the user's pinned repos. When {@code ingestion.github.inline-readme} is on, the
+     * README.md blob of every repo comes back in the same request as {@link RepositoryNode#readme()},
+     * so only repos with a non-standard README name need {@link #fetchReadmeAsync(String, String)}.
+     */
     public GitHubGraphQLResponse fetchPinnedRepos(String username, String token) {
         String query = """
             {
@@ -42,18 +93,18 @@ public class GitHubGraphQLClient {
                                         }
                                     }
                                 }
+            %s
                             }
                         }
                     }
                 }
             }
-            """.formatted(username);
+            """.formatted(username, inlineReadme ? INLINE_README_FIELD : "");
 
         Map<String, String> requestBody = Map.of("query", query);
 
-        WebClient graphqlClient = WebClient.create(GITHUB_GRAPHQL_URL);
-        
-        return graphqlClient.post()
+        return webClient.post()
+                .uri(GITHUB_GRAPHQL_PATH)
                 .header("Authorization", "Bearer " + token)
                 .header("Content-Type", "application/json")
                 .bodyValue(requestBody)
@@ -64,27 +115,103 @@ public class GitHubGraphQLClient {
     }
 
     public String fetchReadme(String repoUrl, String token) {
+        return fetchReadmeAsync(repoUrl, token).map(ReadmeContent::text).block();
+    }
+
+    /**
+     * Non-blocking variant of {@link #fetchReadme(String, String)} so callers can fan out
+     * over several repos. A missing README comes back empty, other errors as {@link ReadmeContent#notFetched()},
+     * except {@link UpstreamUnavailableException} which is passed on.
+     * Sends the cached ETag/Last-Modified validators, a 304 returns the cached text flagged as not modified
+     * (and doesn't count against the rate limit). New validators are only returned, not cached, until
+     * {@link #rememberReadme(String, String, ReadmeContent)}.
+     */
+    public Mono<ReadmeContent> fetchReadmeAsync(String repoUrl, String token) {
         String[] parts = repoUrl.replace("https://github.com/", "").split("/");
         String owner = parts[0];
         String repo = parts[1];
 
-        String readmeUrl = String.format("%s/repos/%s/%s/readme", GITHUB_REST_URL, owner, repo);
+        String cacheKey = cacheKey(repoUrl, token);
+        CachedReadme cached = readmeCache.get(cacheKey);
 
-        WebClient restClient = WebClient.create();
-
-        return restClient.get()
-                .uri(readmeUrl)
+        return webClient.get()
+                .uri(GITHUB_README_PATH, owner, repo)
                 .header("Authorization", "Bearer " + token)
-                .retrieve()
-                .bodyToMono(GitHubReadmeResponse.class)
-                .map(response -> {
-                    byte[] decodedBytes = Base64.getMimeDecoder().decode(response.content());
-                    return new String(decodedBytes, StandardCharsets.UTF_8);
+                .headers(headers -> {
+                    if (cached != null && cached.etag() != null) {
+                        headers.setIfNoneMatch(cached.etag());
+                    }
+                    if (cached != null && cached.lastModified() != null) {
+                        headers.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+                    }
                 })
-                .onErrorResume(e -> {
-                    log.warn("Failed to fetch README: {}", e.getMessage());
-                    return Mono.just("");
+                .exchangeToMono(response -> {
+                    if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value() && cached != null) {
+                        log.debug("README not modified: {}", repoUrl);
+                        return Mono.just(new ReadmeContent(cached.text(), true));
+                    }
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return response.createError();
+                    }
+                    HttpHeaders headers = response.headers().asHttpHeaders();
+                    return response.bodyToMono(GitHubReadmeResponse.class)
+                            .map(body -> {
+                                byte[] decodedBytes = Base64.getMimeDecoder().decode(body.content());
+                                String text = new String(decodedBytes, StandardCharsets.UTF_8);
+                                return new ReadmeContent(text, false,
+                                        headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED));
+                            });
                 })
-                .block();
+                // an open circuit fails the ingestion. a 404 means there is no README, any other error
+                // (rate limit budget, timeout, 5xx) is reported as unavailable so the stored one is kept
+                .onErrorResume(e -> !(e instanceof UpstreamUnavailableException), e -> {
+                    if (e instanceof WebClientResponseException.NotFound) {
+                        return Mono.just(ReadmeContent.empty());
+                    }
+                    log.warn("Failed to fetch README: {}", e.getMessage());
+                    return Mono.just(ReadmeContent.notFetched());
+                });
     }
+
+    /**
+     * GraphQL POSTs carry no ETag, so for inline README blobs the git blob oid plays the same role:
+     * an unchanged oid for this (repo, token scope) means the README is not modified.
+     */
+    public ReadmeContent resolveInlineReadme(String repoUrl, String token, ReadmeBlob blob) {
+        String cacheKey = cacheKey(repoUrl, token);
+        String validator = blob.oid() != null ? "oid:" + blob.oid() : null;
+        CachedReadme cached = readmeCache.get(cacheKey);
+
+        boolean notModified = validator != null && cached != null && validator.equals(cached.etag());
+        return new ReadmeContent(blob.text(), notModified, notModified ? null : validator, null);
+    }
+
+    /**
+     * Caches the validators of a fresh README. Call it only once the content built from it is stored:
+     * a validator cached ahead of a failed write would answer "not modified" next time and the
+     * change would never be written.
+     */
+    public void rememberReadme(String repoUrl, String token, ReadmeContent readme) {
+        if (readme.notModified() || (readme.etag() == null && readme.lastModified() == null)) {
+            return;
+        }
+        readmeCache.put(cacheKey(repoUrl, token), new CachedReadme(readme.etag(), readme.lastModified(), readme.text()));
+    }
+
+    // validators are scoped per token so one user's private view never answers for another
+    private String cacheKey(String repoUrl, String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8) + "|" + repoUrl;
+        } catch (NoSuchAlgorithmException e) {
+            return token.hashCode() + "|" + repoUrl;
+        }
+    }
+
+    private record CachedReadme(
+            String etag,
+            String lastModified,
+            String text
+    ) {}
 }
@@ -1,33 +1,25 @@
 package com.arte.ingestion.client;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.arte.ingestion.dto.leetcode.LeetCodeUserDataResponse;
+import com.arte.ingestion.exception.UpstreamUnavailableException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class LeetCodeGraphQLClient {
 
-    private static final String LEETCODE_GRAPHQL_URL = "https://leetcode.com/graphql";
-
-    private final ObjectMapper objectMapper;
-
-    private final WebClient webClient = WebClient.builder()
-            .baseUrl(LEETCODE_GRAPHQL_URL)
-            .defaultHeader("Content-Type", "application/json")
-            .defaultHeader("Referer", "https://leetcode.com")
-            .build();
-
-    public JsonNode fetchUserProfile(String username) {
-        String query = """
-            query getUserProfile($username: String!) {
-                matchedUser(username: $username) {
+    // field selections shared by the combined document and the per-section fallback queries
+    private static final String PROFILE_FIELDS = """
                     username
                     profile {
                         realName
@@ -50,73 +42,24 @@ public class LeetCodeGraphQLClient {
                         name
                         icon
                     }
-                }
-            }
             """;
 
-        Map<String, Object> requestBody = Map.of(
-                "query", query,
-                "variables", Map.of("username", username)
-        );
-
-        try {
-            String responseBody = webClient.post()
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .doOnError(e -> log.error("Failed to fetch LeetCode profile for: {}", username, e))
-                    .block();
-
-            return objectMapper.readTree(responseBody);
-        } catch (Exception e) {
-            log.error("LeetCode API call failed for user: {}", username, e);
-            return null;
-        }
-    }
-
-    public JsonNode fetchRecentSubmissions(String username, int limit) {
-        String query = """
-            query getRecentSubmissions($username: String!, $limit: Int!) {
-                recentAcSubmissionList(username: $username, limit: $limit) {
+    private static final String SUBMISSION_FIELDS = """
                     id
                     title
                     titleSlug
                     timestamp
                     lang
-                }
-            }
             """;
 
-        Map<String, Object> requestBody = Map.of(
-                "query", query,
-                "variables", Map.of("username", username, "limit", limit)
-        );
-
-        try {
-            String responseBody = webClient.post()
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .doOnError(e -> log.error("Failed to fetch LeetCode submissions for: {}", username, e))
-                    .block();
-
-            return objectMapper.readTree(responseBody);
-        } catch (Exception e) {
-            log.error("LeetCode submissions API call failed for user: {}", username, e);
-            return null;
-        }
-    }
-
-    public JsonNode fetchContestRanking(String username) {
-        String query = """
-            query getUserContestRanking($username: String!) {
-                userContestRanking(username: $username) {
+    private static final String CONTEST_RANKING_FIELDS = """
                     attendedContestsCount
                     rating
                     globalRanking
                     topPercentage
-                }
-                userContestRankingHistory(username: $username) {
+            """;
+
+    private static final String CONTEST_HISTORY_FIELDS = """
                     attended
                     rating
                     ranking
@@ -124,59 +67,158 @@ public class LeetCodeGraphQLClient {
                         title
                         startTime
                     }
-                }
-            }
             """;
 
-        Map<String, Object> requestBody = Map.of(
-                "query", query,
-                "variables", Map.of("username", username)
-        );
-
-        try {
-            String responseBody = webClient.post()
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .doOnError(e -> log.error("Failed to fetch LeetCode contest ranking for: {}", username, e))
-                    .block();
-
-            return objectMapper.readTree(responseBody);
-        } catch (Exception e) {
-            log.error("LeetCode contest API call failed for user: {}", username, e);
-            return null;
-        }
-    }
-
-    public JsonNode fetchLanguageStats(String username) {
-        String query = """
-            query languageStats($username: String!) {
-                matchedUser(username: $username) {
+    private static final String LANGUAGE_FIELDS = """
                     languageProblemCount {
                         languageName
                         problemsSolved
                     }
+            """;
+
+    /**
+     * Every section in one document. Aliases keep the two {@code matchedUser} selections apart and give the
+     * response the same shape the fallback assembles, so callers never care which path served them.
+     */
+    private static final String USER_DATA_QUERY = """
+            query getUserData($username: String!, $limit: Int!) {
+                profile: matchedUser(username: $username) {
+            %s    }
+                languages: matchedUser(username: $username) {
+            %s    }
+                recentSubmissions: recentAcSubmissionList(username: $username, limit: $limit) {
+            %s    }
+                contestRanking: userContestRanking(username: $username) {
+            %s    }
+                contestHistory: userContestRankingHistory(username: $username) {
+            %s    }
+            }
+            """.formatted(PROFILE_FIELDS, LANGUAGE_FIELDS, SUBMISSION_FIELDS, CONTEST_RANKING_FIELDS, CONTEST_HISTORY_FIELDS);
+
+    private static final String PROFILE_QUERY = """
+            query getUserProfile($username: String!) {
+                profile: matchedUser(username: $username) {
+            %s    }
+            }
+            """.formatted(PROFILE_FIELDS);
+
+    private static final String SUBMISSIONS_QUERY = """
+            query getRecentSubmissions($username: String!, $limit: Int!) {
+                recentSubmissions: recentAcSubmissionList(username: $username, limit: $limit) {
+            %s    }
+            }
+            """.formatted(SUBMISSION_FIELDS);
+
+    private static final String CONTEST_QUERY = """
+            query getUserContestRanking($username: String!) {
+                contestRanking: userContestRanking(username: $username) {
+            %s    }
+                contestHistory: userContestRankingHistory(username: $username) {
+            %s    }
+            }
+            """.formatted(CONTEST_RANKING_FIELDS, CONTEST_HISTORY_FIELDS);
+
+    private static final String LANGUAGE_QUERY = """
+            query languageStats($username: String!) {
+                languages: matchedUser(username: $username) {
+            %s    }
+            }
+            """.formatted(LANGUAGE_FIELDS);
+
+    // rate limited, see LeetCodeClientConfig
+    private final WebClient webClient;
+
+    @Value("${ingestion.leetcode.combined-query:true}")
+    private boolean combinedQueryEnabled;
+
+    @Value("${ingestion.leetcode.combined-query-cooldown-minutes:30}")
+    private long combinedQueryCooldownMinutes;
+
+    // pushed out when LeetCode refuses the combined document: until then ingestions go straight to the fallback,
+    // after that the combined query is probed again, a refusal on their side isn't necessarily permanent
+    private volatile Instant combinedQueryRetryAt = Instant.EPOCH;
+
+    public LeetCodeGraphQLClient(@Qualifier("leetCodeWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    /**
+     * Fetches profile, recent submissions, contest ranking and language stats for a user in one round trip.
+     * If the combined document is rejected the four sections are fetched as separate queries in parallel instead,
+     * both paths decode into the same {@link LeetCodeUserDataResponse}. The fallback sticks for
+     * {@code combined-query-cooldown-minutes}, then the combined query gets another try.
+     *
+     * @return the merged response, or null when LeetCode couldn't be reached at all
+     */
+    public LeetCodeUserDataResponse fetchUserData(String username, int limit) {
+        if (combinedQueryEnabled && !Instant.now().isBefore(combinedQueryRetryAt)) {
+            try {
+                LeetCodeUserDataResponse response = post(USER_DATA_QUERY, Map.of("username", username, "limit", limit)).block();
+                if (!isRejected(response)) {
+                    return response;
+                }
+                log.warn("LeetCode rejected the combined query ({}), switching to parallel queries",
+                        response != null ? response.errors() : "empty response");
+            } catch (WebClientResponseException e) {
+                // 429 is the rate limit, not a verdict on the query
+                if (!e.getStatusCode().is4xxClientError() || e.getStatusCode().value() == 429) {
+                    log.error("LeetCode API call failed for user: {}", username, e);
+                    return null;
                 }
+                log.warn("LeetCode rejected the combined query with {}, switching to parallel queries", e.getStatusCode());
+            } catch (UpstreamUnavailableException e) {
+                throw e;
+            } catch (Exception e) {
+                log.error("LeetCode API call failed for user: {}", username, e);
+                return null;
             }
-            """;
+            combinedQueryRetryAt = Instant.now().plus(Duration.ofMinutes(combinedQueryCooldownMinutes));
+        }
 
-        Map<String, Object> requestBody = Map.of(
-                "query", query,
-                "variables", Map.of("username", username)
-        );
+        return fetchSectionsInParallel(username, limit);
+    }
+
+    private LeetCodeUserDataResponse fetchSectionsInParallel(String username, int limit) {
+        Map<String, Object> userOnly = Map.of("username", username);
 
         try {
-            String responseBody = webClient.post()
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .doOnError(e -> log.error("Failed to fetch LeetCode language stats for: {}", username, e))
+            return Mono.zip(
+                            section(PROFILE_QUERY, userOnly, "profile", username),
+                            section(SUBMISSIONS_QUERY, Map.of("username", username, "limit", limit), "submissions", username),
+                            section(CONTEST_QUERY, userOnly, "contest ranking", username),
+                            section(LANGUAGE_QUERY, userOnly, "language stats", username))
+                    .map(sections -> sections.getT1()
+                            .merge(sections.getT2())
+                            .merge(sections.getT3())
+                            .merge(sections.getT4()))
                     .block();
-
-            return objectMapper.readTree(responseBody);
+        } catch (UpstreamUnavailableException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("LeetCode language stats API call failed for user: {}", username, e);
+            log.error("LeetCode API call failed for user: {}", username, e);
             return null;
         }
     }
+
+    // a failed section degrades to an empty response so the others still make it into the result,
+    // unless the circuit is open: then the whole fetch fails fast instead of ingesting an empty profile
+    private Mono<LeetCodeUserDataResponse> section(String query, Map<String, Object> variables, String name, String username) {
+        return post(query, variables)
+                .doOnError(e -> log.error("Failed to fetch LeetCode {} for: {}", name, username, e))
+                .onErrorResume(e -> !(e instanceof UpstreamUnavailableException), e -> Mono.empty())
+                .defaultIfEmpty(LeetCodeUserDataResponse.empty());
+    }
+
+    // decoded from the response buffer into the records, no intermediate String or JsonNode tree
+    private Mono<LeetCodeUserDataResponse> post(String query, Map<String, Object> variables) {
+        return webClient.post()
+                .bodyValue(Map.of("query", query, "variables", variables))
+                .retrieve()
+                .bodyToMono(LeetCodeUserDataResponse.class);
+    }
+
+    // unknown users also come back with errors, but with a data object, only a missing data object means the query itself was refused
+    private boolean isRejected(LeetCodeUserDataResponse response) {
+        return response == null || (response.errors() != null && response.data() == null);
+    }
 }
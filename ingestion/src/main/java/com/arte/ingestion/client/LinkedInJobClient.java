@@ -0,0 +1,71 @@
+package com.arte.ingestion.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Fetches public LinkedIn job pages. jsoup is blocking, so the fetch runs through the
+ * linkedin {@link UpstreamGuard} and has its own connect/read timeout.
+ * With {@code ingestion.linkedin.hedge.enabled} a slow fetch gets a second, hedged attempt (see {@link RequestHedger}),
+ * each attempt goes through the guard on its own.
+ */
+@Component
+@Slf4j
+public class LinkedInJobClient {
+
+    private static final String LINKEDIN_JOB_URL = "https://www.linkedin.com/jobs/view/";
+    private static final String USER_AGENT = "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36";
+
+    private final UpstreamGuard upstreamGuard;
+    private final RequestHedger hedger;
+
+    @Value("${ingestion.linkedin.call-timeout-seconds:15}")
+    private int timeoutSeconds;
+
+    public LinkedInJobClient(@Qualifier("linkedInUpstreamGuard") UpstreamGuard upstreamGuard,
+                             @Qualifier("ingestionExecutor") Executor executor,
+                             MeterRegistry meterRegistry,
+                             @Value("${ingestion.linkedin.hedge.enabled:false}") boolean hedgeEnabled,
+                             @Value("${ingestion.linkedin.hedge.percentile:0.95}") double percentile,
+                             @Value("${ingestion.linkedin.hedge.min-delay-ms:200}") long minDelayMs,
+                             @Value("${ingestion.linkedin.hedge.initial-delay-ms:2000}") long initialDelayMs,
+                             @Value("${ingestion.linkedin.hedge.budget-ratio:0.1}") double budgetRatio,
+                             @Value("${ingestion.linkedin.hedge.max-burst:5}") int maxBurst,
+                             @Value("${ingestion.linkedin.hedge.sample-size:200}") int sampleSize,
+                             @Value("${ingestion.linkedin.hedge.min-samples:20}") int minSamples) {
+        this.upstreamGuard = upstreamGuard;
+        this.hedger = hedgeEnabled
+                ? new RequestHedger("linkedin", new RequestHedger.Settings(
+                        percentile,
+                        Duration.ofMillis(minDelayMs),
+                        Duration.ofMillis(initialDelayMs),
+                        budgetRatio,
+                        maxBurst,
+                        sampleSize,
+                        minSamples), executor, meterRegistry)
+                : null;
+    }
+
+    public Document fetchJobPage(String jobId) throws IOException {
+        if (hedger == null) {
+            return fetch(jobId);
+        }
+        return hedger.call(() -> fetch(jobId));
+    }
+
+    private Document fetch(String jobId) throws IOException {
+        return upstreamGuard.call(() -> Jsoup.connect(LINKEDIN_JOB_URL + jobId)
+                .userAgent(USER_AGENT)
+                .timeout(timeoutSeconds * 1000)
+                .get());
+    }
+}
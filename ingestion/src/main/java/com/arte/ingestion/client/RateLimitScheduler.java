@@ -0,0 +1,273 @@
+package com.arte.ingestion.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Paces outbound calls to one upstream with a token bucket per credential (the Authorization header,
+ * or a single shared bucket for anonymous upstreams like LeetCode). Plugged into a WebClient as a filter.
+ * <ul>
+ *     <li>a request with no token left is delayed until one refills, or until the server reported reset,
+ *     and fails if that's further away than {@code maxWait}</li>
+ *     <li>{@code X-RateLimit-Remaining}, {@code X-RateLimit-Reset} and {@code Retry-After} shrink the local budget
+ *     so it never runs ahead of what the server says is left</li>
+ *     <li>429, 5xx gateway errors, GitHub's rate-limited 403 and connection failures are retried with jittered
+ *     exponential backoff, each attempt going through the bucket again</li>
+ * </ul>
+ * Exported as {@code ingestion.upstream.rate.budget} (lowest bucket), {@code ingestion.upstream.rate.queued}
+ * and {@code ingestion.upstream.rate.retries}, all tagged with the upstream.
+ */
+@Slf4j
+public class RateLimitScheduler {
+
+    static final String RATE_LIMIT_REMAINING = "X-RateLimit-Remaining";
+    static final String RATE_LIMIT_RESET = "X-RateLimit-Reset";
+
+    private static final String ANONYMOUS = "anonymous";
+
+    private final String upstream;
+    private final double permitsPerSecond;
+    private final int burst;
+    private final long maxWaitNanos;
+    private final int maxRetries;
+    private final Duration initialBackoff;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter retries;
+
+    // one bucket per credential, LRU bounded so idle user tokens drop out
+    private final Map<String, TokenBucket> buckets;
+
+    public RateLimitScheduler(String upstream, double permitsPerSecond, int burst, Duration maxWait,
+                              int maxRetries, Duration initialBackoff, int maxBuckets, MeterRegistry meterRegistry) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit for " + upstream + " needs permitsPerSecond > 0 and burst >= 1");
+        }
+        this.upstream = upstream;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxRetries = maxRetries;
+        this.initialBackoff = initialBackoff;
+        this.buckets = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                return size() > maxBuckets;
+            }
+        });
+
+        Gauge.builder("ingestion.upstream.rate.budget", this, RateLimitScheduler::lowestBudget)
+                .description("Tokens left in the most depleted bucket of the upstream")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        Gauge.builder("ingestion.upstream.rate.queued", queued, AtomicInteger::get)
+                .description("Requests waiting for a rate limit token")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        this.retries = Counter.builder("ingestion.upstream.rate.retries")
+                .description("Upstream requests retried after a rate limit or transient failure")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+    }
+
+    public ExchangeFilterFunction filter() {
+        return (request, next) -> {
+            TokenBucket bucket = bucketFor(request);
+
+            return Mono.defer(() -> acquire(bucket).then(Mono.defer(() -> next.exchange(request))))
+                    .flatMap(response -> {
+                        HttpHeaders headers = response.headers().asHttpHeaders();
+                        bucket.observe(headers);
+                        if (isRetryable(response.statusCode(), headers)) {
+                            // drains the body and surfaces the status to retryWhen
+                            return response.createException().flatMap(Mono::error);
+                        }
+                        return Mono.just(response);
+                    })
+                    .retryWhen(Retry.backoff(maxRetries, initialBackoff)
+                            .jitter(0.5)
+                            .filter(RateLimitScheduler::isRetryable)
+                            .doBeforeRetry(signal -> {
+                                retries.increment();
+                                log.debug("Retrying {} {} (attempt {}): {}", upstream, request.url().getPath(),
+                                        signal.totalRetries() + 1, signal.failure().getMessage());
+                            })
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+        };
+    }
+
+    private Mono<Void> acquire(TokenBucket bucket) {
+        long waitNanos = bucket.reserve(maxWaitNanos);
+        if (waitNanos < 0) {
+            return Mono.error(new IllegalStateException(
+                    "Rate limit budget for " + upstream + " exhausted, not retrying before reset"));
+        }
+        if (waitNanos == 0) {
+            return Mono.empty();
+        }
+
+        queued.incrementAndGet();
+        return Mono.delay(Duration.ofNanos(waitNanos))
+                .doFinally(signal -> queued.decrementAndGet())
+                .then();
+    }
+
+    private TokenBucket bucketFor(ClientRequest request) {
+        String authorization = request.headers().getFirst(HttpHeaders.AUTHORIZATION);
+        String key = authorization != null ? credentialKey(authorization) : ANONYMOUS;
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(burst, permitsPerSecond));
+    }
+
+    private double lowestBudget() {
+        List<TokenBucket> snapshot;
+        synchronized (buckets) {
+            snapshot = List.copyOf(buckets.values());
+        }
+        return snapshot.stream()
+                .mapToDouble(TokenBucket::available)
+                .min()
+                .orElse(burst);
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        if (e instanceof WebClientResponseException responseException) {
+            return isRetryable(responseException.getStatusCode(), responseException.getHeaders());
+        }
+        return e instanceof WebClientRequestException;
+    }
+
+    private static boolean isRetryable(HttpStatusCode status, HttpHeaders headers) {
+        return switch (status.value()) {
+            case 502, 503, 504 -> true;
+            default -> isRateLimited(status, headers);
+        };
+    }
+
+    /**
+     * 429, or the 403 github answers an exhausted (or secondary) rate limit with. Shared with
+     * {@link UpstreamGuard} so a throttled upstream counts against the circuit too.
+     */
+    static boolean isRateLimited(HttpStatusCode status, HttpHeaders headers) {
+        return switch (status.value()) {
+            case 429 -> true;
+            case 403 -> "0".equals(headers.getFirst(RATE_LIMIT_REMAINING))
+                    || headers.getFirst(HttpHeaders.RETRY_AFTER) != null;
+            default -> false;
+        };
+    }
+
+    // the raw token never ends up as a map key
+    private static String credentialKey(String authorization) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(authorization.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(authorization.hashCode());
+        }
+    }
+
+    /**
+     * Smooth token bucket. Reservations may take the balance below zero, which is how queued requests
+     * line up behind each other without a separate queue.
+     */
+    static final class TokenBucket {
+
+        private final double capacity;
+        private final double permitsPerNano;
+
+        private double tokens;
+        private long lastRefill;
+        private long blockedUntil;
+
+        TokenBucket(double capacity, double permitsPerSecond) {
+            this.capacity = capacity;
+            this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+            this.blockedUntil = lastRefill;
+        }
+
+        /**
+         * @return nanos to wait before sending, or -1 when that would exceed {@code maxWaitNanos} (nothing is reserved then)
+         */
+        synchronized long reserve(long maxWaitNanos) {
+            long now = System.nanoTime();
+            refill(now);
+
+            long wait = Math.max(0, blockedUntil - now);
+            if (tokens < 1) {
+                wait = Math.max(wait, (long) Math.ceil((1 - tokens) / permitsPerNano));
+            }
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            tokens -= 1;
+            return wait;
+        }
+
+        synchronized void observe(HttpHeaders headers) {
+            long now = System.nanoTime();
+            refill(now);
+
+            Long remaining = parseLong(headers.getFirst(RATE_LIMIT_REMAINING));
+            if (remaining != null) {
+                tokens = Math.min(tokens, remaining);
+                Long resetEpochSeconds = parseLong(headers.getFirst(RATE_LIMIT_RESET));
+                if (remaining == 0 && resetEpochSeconds != null) {
+                    long untilReset = resetEpochSeconds - System.currentTimeMillis() / 1000;
+                    blockedUntil = Math.max(blockedUntil, now + TimeUnit.SECONDS.toNanos(Math.max(untilReset, 0)));
+                }
+            }
+
+            Long retryAfterSeconds = parseLong(headers.getFirst(HttpHeaders.RETRY_AFTER));
+            if (retryAfterSeconds != null) {
+                blockedUntil = Math.max(blockedUntil, now + TimeUnit.SECONDS.toNanos(retryAfterSeconds));
+            }
+        }
+
+        synchronized double available() {
+            refill(System.nanoTime());
+            return tokens;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+            lastRefill = now;
+        }
+
+        // Retry-After may also be an HTTP date, that form is ignored and the backoff alone applies
+        private static Long parseLong(String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
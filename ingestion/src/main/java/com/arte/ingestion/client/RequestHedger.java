@@ -0,0 +1,194 @@
+package com.arte.ingestion.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Hedged requests for a blocking upstream call. When the first attempt hasn't answered after the
+ * {@code percentile} latency of recent successful calls, a second attempt starts and whichever succeeds first wins.
+ * Until {@code minSamples} latencies are known the delay is {@code initialDelay}.
+ * <p>
+ * Hedges are paid for from a budget that every call tops up by {@code budgetRatio} (capped at {@code maxBurst}),
+ * so at most that share of calls is ever sent twice, even when the upstream is slow across the board.
+ * The losing attempt isn't interrupted (that would count as a failure in the {@link UpstreamGuard}),
+ * it runs into its own timeout and its result is dropped.
+ * <p>
+ * Metrics: {@code ingestion.upstream.hedge.sent}, {@code .won}, {@code .skipped} and {@code .delay} (ms), tagged by upstream.
+ */
+@Slf4j
+public class RequestHedger {
+
+    public record Settings(
+            double percentile,
+            Duration minDelay,
+            Duration initialDelay,
+            double budgetRatio,
+            int maxBurst,
+            int sampleSize,
+            int minSamples
+    ) {}
+
+    private final String upstream;
+    private final Settings settings;
+    private final Executor executor;
+    private final Counter sent;
+    private final Counter won;
+    private final Counter skipped;
+
+    // latency ring buffer and hedge budget, guarded by this
+    private final long[] latencies;
+    private int latencyIndex;
+    private int latencyCount;
+    private double budget;
+
+    public RequestHedger(String upstream, Settings settings, Executor executor, MeterRegistry meterRegistry) {
+        if (settings.percentile() <= 0 || settings.percentile() > 1 || settings.sampleSize() < 1) {
+            throw new IllegalArgumentException("Invalid hedging settings for " + upstream + ": " + settings);
+        }
+        this.upstream = upstream;
+        this.settings = settings;
+        this.executor = executor;
+        this.latencies = new long[settings.sampleSize()];
+
+        this.sent = counter("ingestion.upstream.hedge.sent", meterRegistry);
+        this.won = counter("ingestion.upstream.hedge.won", meterRegistry);
+        this.skipped = counter("ingestion.upstream.hedge.skipped", meterRegistry);
+        Gauge.builder("ingestion.upstream.hedge.delay", this, hedger -> hedger.hedgeDelay().toMillis())
+                .description("Current delay before a hedge is sent, in ms")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+    }
+
+    public <T> T call(UpstreamGuard.GuardedCall<T, IOException> call) throws IOException {
+        addBudget();
+        CompletableFuture<T> primary = attempt(call);
+
+        try {
+            return primary.get(hedgeDelay().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // slow, maybe hedge below
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for " + upstream);
+        }
+
+        if (!takeBudget()) {
+            skipped.increment();
+            return await(primary);
+        }
+        sent.increment();
+        log.debug("{} call slower than {}ms, sending a hedge", upstream, hedgeDelay().toMillis());
+        CompletableFuture<T> hedge = attempt(call);
+
+        // first success wins, a failure only counts once both attempts failed
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete(settle(winner, failures, false));
+        hedge.whenComplete(settle(winner, failures, true));
+        return await(winner);
+    }
+
+    Duration hedgeDelay() {
+        long[] sorted;
+        synchronized (this) {
+            if (latencyCount < settings.minSamples()) {
+                return settings.initialDelay();
+            }
+            sorted = Arrays.copyOf(latencies, latencyCount);
+        }
+        Arrays.sort(sorted);
+        int index = Math.max((int) Math.ceil(settings.percentile() * sorted.length) - 1, 0);
+        Duration delay = Duration.ofNanos(sorted[index]);
+        return delay.compareTo(settings.minDelay()) < 0 ? settings.minDelay() : delay;
+    }
+
+    private <T> CompletableFuture<T> attempt(UpstreamGuard.GuardedCall<T, IOException> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                T result = call.call();
+                recordLatency(System.nanoTime() - start);
+                future.complete(result);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private <T> BiConsumer<T, Throwable> settle(CompletableFuture<T> winner, AtomicInteger failures, boolean isHedge) {
+        return (result, error) -> {
+            if (error == null) {
+                if (winner.complete(result) && isHedge) {
+                    won.increment();
+                }
+            } else if (failures.incrementAndGet() == 2) {
+                winner.completeExceptionally(error);
+            }
+        };
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencies[latencyIndex] = nanos;
+        latencyIndex = (latencyIndex + 1) % latencies.length;
+        latencyCount = Math.min(latencyCount + 1, latencies.length);
+    }
+
+    private synchronized void addBudget() {
+        budget = Math.min(budget + settings.budgetRatio(), settings.maxBurst());
+    }
+
+    private synchronized boolean takeBudget() {
+        if (budget < 1) {
+            return false;
+        }
+        budget--;
+        return true;
+    }
+
+    private <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for " + upstream);
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException io) {
+            return io;
+        }
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IOException(cause);
+    }
+
+    private Counter counter(String name, MeterRegistry meterRegistry) {
+        return Counter.builder(name).tag("upstream", upstream).register(meterRegistry);
+    }
+}
@@ -0,0 +1,279 @@
+package com.arte.ingestion.client;
+
+import com.arte.ingestion.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Circuit breaker + bulkhead for one upstream, so a slow or failing source fails fast
+ * instead of holding gRPC/servlet threads that the other sources need.
+ * <ul>
+ *     <li>breaker: count based window over the last {@code windowSize} calls, opens once the failure rate
+ *     reaches the threshold, lets {@code halfOpenCalls} trial calls through after {@code openDuration}</li>
+ *     <li>bulkhead: at most {@code maxConcurrent} calls in flight, reactive calls are rejected right away
+ *     when it's full, blocking calls wait up to {@code maxWait}</li>
+ * </ul>
+ * 5xx, 429, github's rate limit 403, timeouts and connection errors count as failures,
+ * other 4xx (missing README, unknown user) don't.
+ * State is exported as {@code ingestion.upstream.circuit.state} (0 closed, 1 half open, 2 open) and shown by
+ * the {@code upstreams} health indicator.
+ */
+@Slf4j
+public class UpstreamGuard {
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    public record Settings(
+            int windowSize,
+            int minimumCalls,
+            double failureRateThreshold,
+            Duration openDuration,
+            int halfOpenCalls,
+            int maxConcurrent,
+            Duration maxWait,
+            Duration callTimeout
+    ) {}
+
+    @FunctionalInterface
+    public interface GuardedCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private final String upstream;
+    private final Settings settings;
+    private final Semaphore bulkhead;
+    private final Counter circuitRejections;
+    private final Counter bulkheadRejections;
+
+    // breaker state, guarded by this
+    private State state = State.CLOSED;
+    private final boolean[] outcomes;
+    private int outcomeIndex;
+    private int recordedCalls;
+    private int failedCalls;
+    private long openedAt;
+    private int trialsInFlight;
+    private int trialSuccesses;
+
+    public UpstreamGuard(String upstream, Settings settings, MeterRegistry meterRegistry) {
+        if (settings.windowSize() < 1 || settings.maxConcurrent() < 1 || settings.halfOpenCalls() < 1) {
+            throw new IllegalArgumentException("Invalid circuit/bulkhead settings for " + upstream + ": " + settings);
+        }
+        this.upstream = upstream;
+        this.settings = settings;
+        this.bulkhead = new Semaphore(settings.maxConcurrent());
+        this.outcomes = new boolean[settings.windowSize()];
+
+        Gauge.builder("ingestion.upstream.circuit.state", this, guard -> guard.getState().ordinal())
+                .description("Circuit state: 0 closed, 1 half open, 2 open")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        Gauge.builder("ingestion.upstream.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .description("Free bulkhead slots")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        this.circuitRejections = Counter.builder("ingestion.upstream.rejected")
+                .tag("upstream", upstream)
+                .tag("reason", "circuit_open")
+                .register(meterRegistry);
+        this.bulkheadRejections = Counter.builder("ingestion.upstream.rejected")
+                .tag("upstream", upstream)
+                .tag("reason", "bulkhead_full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Guards every exchange of a WebClient. Goes after {@link RateLimitScheduler#filter()} so the timeout
+     * and the verdict cover one real attempt, never time spent waiting for a rate limit token.
+     */
+    public ExchangeFilterFunction filter() {
+        return (request, next) -> Mono.defer(() -> {
+            Permit permit = acquire(false);
+            return next.exchange(request)
+                    .timeout(settings.callTimeout())
+                    .doOnNext(response -> permit.complete(
+                            !isFailure(response.statusCode(), response.headers().asHttpHeaders())))
+                    .doOnError(e -> permit.complete(false))
+                    .doFinally(signal -> permit.release());
+        });
+    }
+
+    /**
+     * Guards a blocking call (jsoup and the like). Any exception counts as a failure and is rethrown.
+     */
+    public <T, E extends Exception> T call(GuardedCall<T, E> call) throws E {
+        Permit permit = acquire(true);
+        try {
+            T result = call.call();
+            permit.complete(true);
+            return result;
+        } catch (Exception e) {
+            permit.complete(false);
+            throw e;
+        } finally {
+            permit.release();
+        }
+    }
+
+    public String getUpstream() {
+        return upstream;
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && openElapsed()) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public synchronized double getFailureRate() {
+        return recordedCalls == 0 ? 0 : (double) failedCalls / recordedCalls;
+    }
+
+    public int getAvailableConcurrency() {
+        return bulkhead.availablePermits();
+    }
+
+    private Permit acquire(boolean wait) {
+        boolean acquired;
+        try {
+            acquired = wait
+                    ? bulkhead.tryAcquire(settings.maxWait().toNanos(), TimeUnit.NANOSECONDS)
+                    : bulkhead.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            bulkheadRejections.increment();
+            throw new UpstreamUnavailableException(upstream, "bulkhead full");
+        }
+
+        Boolean trial = tryPermit();
+        if (trial == null) {
+            bulkhead.release();
+            circuitRejections.increment();
+            throw new UpstreamUnavailableException(upstream, "circuit open");
+        }
+        return new Permit(trial);
+    }
+
+    // null = rejected, otherwise whether this call is a half open trial
+    private synchronized Boolean tryPermit() {
+        if (state == State.OPEN) {
+            if (!openElapsed()) {
+                return null;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsInFlight >= settings.halfOpenCalls()) {
+                return null;
+            }
+            trialsInFlight++;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void onResult(boolean trial, boolean success) {
+        if (trial) {
+            if (state != State.HALF_OPEN) {
+                return;
+            }
+            trialsInFlight--;
+            if (!success) {
+                transitionTo(State.OPEN);
+            } else if (++trialSuccesses >= settings.halfOpenCalls()) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        // late results of calls started before the circuit opened don't count
+        if (state != State.CLOSED) {
+            return;
+        }
+
+        if (recordedCalls == outcomes.length) {
+            if (!outcomes[outcomeIndex]) {
+                failedCalls--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        outcomes[outcomeIndex] = success;
+        if (!success) {
+            failedCalls++;
+        }
+        outcomeIndex = (outcomeIndex + 1) % outcomes.length;
+
+        if (recordedCalls >= settings.minimumCalls()
+                && getFailureRate() * 100 >= settings.failureRateThreshold()) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private synchronized void onAbandoned(boolean trial) {
+        if (trial && state == State.HALF_OPEN) {
+            trialsInFlight--;
+        }
+    }
+
+    private void transitionTo(State next) {
+        log.warn("Circuit for {} {} -> {} (failure rate {})", upstream, state, next, String.format("%.2f", getFailureRate()));
+        state = next;
+        trialsInFlight = 0;
+        trialSuccesses = 0;
+        if (next == State.OPEN) {
+            openedAt = System.nanoTime();
+        }
+        if (next == State.CLOSED) {
+            recordedCalls = 0;
+            failedCalls = 0;
+            outcomeIndex = 0;
+        }
+    }
+
+    private boolean openElapsed() {
+        return System.nanoTime() - openedAt >= settings.openDuration().toNanos();
+    }
+
+    private static boolean isFailure(HttpStatusCode status, HttpHeaders headers) {
+        return status.is5xxServerError() || RateLimitScheduler.isRateLimited(status, headers);
+    }
+
+    private final class Permit {
+
+        private final boolean trial;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Permit(boolean trial) {
+            this.trial = trial;
+        }
+
+        void complete(boolean success) {
+            if (done.compareAndSet(false, true)) {
+                onResult(trial, success);
+            }
+        }
+
+        // cancelled calls (e.g. an ingestion deadline) release their slot without a verdict
+        void release() {
+            if (done.compareAndSet(false, true)) {
+                onAbandoned(trial);
+            }
+            bulkhead.release();
+        }
+    }
+}
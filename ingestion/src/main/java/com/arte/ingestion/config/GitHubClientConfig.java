@@ -0,0 +1,124 @@
+package com.arte.ingestion.config;
+
+import com.arte.ingestion.client.RateLimitScheduler;
+import com.arte.ingestion.client.UpstreamGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * One pooled client for all outbound GitHub traffic (GraphQL + REST), so connections,
+ * TLS sessions and HTTP/2 streams are reused across ingestions instead of rebuilt per call.
+ * Pool metrics are published to the Micrometer global registry under {@code reactor.netty.connection.provider.*}.
+ * Requests are paced by {@link RateLimitScheduler}, each attempt then goes through {@link UpstreamGuard}.
+ */
+@Configuration
+@Slf4j
+public class GitHubClientConfig {
+
+    private static final String GITHUB_API_URL = "https://api.github.com";
+
+    @Value("${ingestion.github.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${ingestion.github.http.pending-acquire-max-count:200}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${ingestion.github.http.pending-acquire-timeout-ms:5000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${ingestion.github.http.max-idle-time-seconds:30}")
+    private long maxIdleTimeSeconds;
+
+    @Value("${ingestion.github.http.max-life-time-seconds:300}")
+    private long maxLifeTimeSeconds;
+
+    @Value("${ingestion.github.http.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${ingestion.github.http.response-timeout-seconds:15}")
+    private long responseTimeoutSeconds;
+
+    @Value("${ingestion.github.http.max-in-memory-size:4MB}")
+    private DataSize maxInMemorySize;
+
+    @Value("${ingestion.github.http.http2-enabled:true}")
+    private boolean http2Enabled;
+
+    @Value("${ingestion.github.rate-limit.permits-per-second:10}")
+    private double ratePermitsPerSecond;
+
+    @Value("${ingestion.github.rate-limit.burst:20}")
+    private int rateBurst;
+
+    @Value("${ingestion.github.rate-limit.max-wait-seconds:30}")
+    private long rateMaxWaitSeconds;
+
+    @Value("${ingestion.github.rate-limit.max-retries:3}")
+    private int rateMaxRetries;
+
+    @Value("${ingestion.github.rate-limit.initial-backoff-ms:500}")
+    private long rateInitialBackoffMs;
+
+    @Value("${ingestion.github.rate-limit.max-buckets:10000}")
+    private int rateMaxBuckets;
+
+    // buckets are keyed by the user's token, every token has its own GitHub quota
+    @Bean
+    public RateLimitScheduler gitHubRateLimitScheduler(MeterRegistry meterRegistry) {
+        return new RateLimitScheduler("github", ratePermitsPerSecond, rateBurst, Duration.ofSeconds(rateMaxWaitSeconds),
+                rateMaxRetries, Duration.ofMillis(rateInitialBackoffMs), rateMaxBuckets, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider gitHubConnectionProvider() {
+        return ConnectionProvider.builder("github")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofSeconds(maxIdleTimeSeconds))
+                .maxLifeTime(Duration.ofSeconds(maxLifeTimeSeconds))
+                .evictInBackground(Duration.ofSeconds(maxIdleTimeSeconds))
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient gitHubWebClient(ConnectionProvider gitHubConnectionProvider,
+                                     @Qualifier("gitHubUpstreamGuard") UpstreamGuard upstreamGuard,
+                                     @Qualifier("gitHubRateLimitScheduler") RateLimitScheduler rateLimitScheduler) {
+        HttpClient httpClient = HttpClient.create(gitHubConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .responseTimeout(Duration.ofSeconds(responseTimeoutSeconds))
+                .compress(true);
+
+        if (http2Enabled) {
+            // h2 is negotiated over ALPN, h1.1 stays available for servers that refuse it
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+        }
+
+        log.info("GitHub client pool: maxConnections={}, http2={}", maxConnections, http2Enabled);
+
+        return WebClient.builder()
+                .baseUrl(GITHUB_API_URL)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) maxInMemorySize.toBytes()))
+                .filter(rateLimitScheduler.filter())
+                .filter(upstreamGuard.filter())
+                .build();
+    }
+}
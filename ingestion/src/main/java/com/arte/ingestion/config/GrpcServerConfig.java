@@ -1,16 +1,27 @@
 package com.arte.ingestion.config;
 
+import com.arte.ingestion.grpc.ConcurrencyLimitInterceptor;
 import com.arte.ingestion.grpc.IngestionGrpcServiceImpl;
 import io.grpc.Server;
-import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Every handler blocks on HTTP and JDBC, so calls run on a virtual thread each instead of the default
+ * cached platform thread pool. {@link ConcurrencyLimitInterceptor} is what bounds the number of calls.
+ */
 @Configuration
 @Slf4j
 public class GrpcServerConfig {
@@ -18,22 +29,61 @@ public class GrpcServerConfig {
     @Value("${grpc.server.port:50052}")
     private int grpcPort;
 
+    @Value("${grpc.server.max-concurrent-calls:2000}")
+    private int maxConcurrentCalls;
+
+    @Value("${grpc.server.max-concurrent-calls-per-connection:500}")
+    private int maxConcurrentCallsPerConnection;
+
+    @Value("${grpc.server.keep-alive-time-seconds:60}")
+    private long keepAliveTimeSeconds;
+
+    @Value("${grpc.server.keep-alive-timeout-seconds:20}")
+    private long keepAliveTimeoutSeconds;
+
+    @Value("${grpc.server.permit-keep-alive-time-seconds:30}")
+    private long permitKeepAliveTimeSeconds;
+
+    @Value("${grpc.server.flow-control-window:1MB}")
+    private DataSize flowControlWindow;
+
+    @Value("${grpc.server.max-inbound-message-size:16MB}")
+    private DataSize maxInboundMessageSize;
+
+    @Value("${grpc.server.shutdown-grace-seconds:30}")
+    private long shutdownGraceSeconds;
+
     private Server server;
+    private ExecutorService callExecutor;
     private final IngestionGrpcServiceImpl ingestionGrpcService;
+    private final MeterRegistry meterRegistry;
 
-    public GrpcServerConfig(IngestionGrpcServiceImpl ingestionGrpcService) {
+    public GrpcServerConfig(IngestionGrpcServiceImpl ingestionGrpcService, MeterRegistry meterRegistry) {
         this.ingestionGrpcService = ingestionGrpcService;
+        this.meterRegistry = meterRegistry;
     }
 
     @PostConstruct
     public void startGrpcServer() {
         try {
-            server = ServerBuilder.forPort(grpcPort)
-                    .addService(ingestionGrpcService)
+            callExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("grpc-call-", 0).factory());
+
+            server = NettyServerBuilder.forPort(grpcPort)
+                    .executor(callExecutor)
+                    .addService(ServerInterceptors.intercept(ingestionGrpcService,
+                            new ConcurrencyLimitInterceptor(maxConcurrentCalls, meterRegistry)))
+                    .maxConcurrentCallsPerConnection(maxConcurrentCallsPerConnection)
+                    .keepAliveTime(keepAliveTimeSeconds, TimeUnit.SECONDS)
+                    .keepAliveTimeout(keepAliveTimeoutSeconds, TimeUnit.SECONDS)
+                    // clients pinging more often than this get GOAWAY
+                    .permitKeepAliveTime(permitKeepAliveTimeSeconds, TimeUnit.SECONDS)
+                    .permitKeepAliveWithoutCalls(true)
+                    .flowControlWindow((int) flowControlWindow.toBytes())
+                    .maxInboundMessageSize((int) maxInboundMessageSize.toBytes())
                     .build()
                     .start();
             
-            log.info("gRPC server started on port: {}", grpcPort);
+            log.info("gRPC server started on port: {} (virtual threads, maxConcurrentCalls={})", grpcPort, maxConcurrentCalls);
             
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 log.info("Shutting down gRPC server...");
@@ -48,10 +98,16 @@ public class GrpcServerConfig {
     }
 
     @PreDestroy
-    public void stopGrpcServer() {
+    public void stopGrpcServer() throws InterruptedException {
         if (server != null) {
             log.info("Stopping gRPC server...");
-            server.shutdown();
+            // let in-flight ingestions finish before their executor goes away
+            if (!server.shutdown().awaitTermination(shutdownGraceSeconds, TimeUnit.SECONDS)) {
+                server.shutdownNow();
+            }
+        }
+        if (callExecutor != null) {
+            callExecutor.shutdownNow();
         }
     }
 }
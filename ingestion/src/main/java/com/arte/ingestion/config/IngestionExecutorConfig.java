@@ -0,0 +1,20 @@
+package com.arte.ingestion.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executor for running the sub-ingestions of a full ingestion side by side. They spend nearly all
+ * their time blocked on HTTP and JDBC, so a virtual thread per task is cheaper than sizing a pool.
+ */
+@Configuration
+public class IngestionExecutorConfig {
+
+    @Bean(destroyMethod = "close")
+    public ExecutorService ingestionExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ingestion-", 0).factory());
+    }
+}
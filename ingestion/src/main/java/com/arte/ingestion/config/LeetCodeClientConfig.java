@@ -0,0 +1,55 @@
+package com.arte.ingestion.config;
+
+import com.arte.ingestion.client.RateLimitScheduler;
+import com.arte.ingestion.client.UpstreamGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+/**
+ * LeetCode's GraphQL endpoint is unauthenticated, so all ingestions share one rate limit bucket.
+ * The defaults stay well under what the public endpoint tolerates before answering 429.
+ */
+@Configuration
+public class LeetCodeClientConfig {
+
+    private static final String LEETCODE_GRAPHQL_URL = "https://leetcode.com/graphql";
+
+    @Value("${ingestion.leetcode.rate-limit.permits-per-second:2}")
+    private double ratePermitsPerSecond;
+
+    @Value("${ingestion.leetcode.rate-limit.burst:4}")
+    private int rateBurst;
+
+    @Value("${ingestion.leetcode.rate-limit.max-wait-seconds:30}")
+    private long rateMaxWaitSeconds;
+
+    @Value("${ingestion.leetcode.rate-limit.max-retries:3}")
+    private int rateMaxRetries;
+
+    @Value("${ingestion.leetcode.rate-limit.initial-backoff-ms:1000}")
+    private long rateInitialBackoffMs;
+
+    @Bean
+    public RateLimitScheduler leetCodeRateLimitScheduler(MeterRegistry meterRegistry) {
+        return new RateLimitScheduler("leetcode", ratePermitsPerSecond, rateBurst, Duration.ofSeconds(rateMaxWaitSeconds),
+                rateMaxRetries, Duration.ofMillis(rateInitialBackoffMs), 1, meterRegistry);
+    }
+
+    @Bean
+    public WebClient leetCodeWebClient(@Qualifier("leetCodeUpstreamGuard") UpstreamGuard upstreamGuard,
+                                       @Qualifier("leetCodeRateLimitScheduler") RateLimitScheduler rateLimitScheduler) {
+        return WebClient.builder()
+                .baseUrl(LEETCODE_GRAPHQL_URL)
+                .defaultHeader("Content-Type", "application/json")
+                .defaultHeader("Referer", "https://leetcode.com")
+                .filter(rateLimitScheduler.filter())
+                .filter(upstreamGuard.filter())
+                .build();
+    }
+}
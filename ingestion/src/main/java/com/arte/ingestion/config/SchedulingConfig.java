@@ -0,0 +1,10 @@
+package com.arte.ingestion.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// drives the job worker's polling loop and the stale profile refresher
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
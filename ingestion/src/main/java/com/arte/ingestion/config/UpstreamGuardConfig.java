@@ -0,0 +1,72 @@
+package com.arte.ingestion.config;
+
+import com.arte.ingestion.client.UpstreamGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * One {@link UpstreamGuard} per upstream. Breaker tuning is shared, bulkhead size and call timeout
+ * are per upstream since the sources differ a lot in how much concurrency they tolerate.
+ */
+@Configuration
+public class UpstreamGuardConfig {
+
+    @Value("${ingestion.upstream.circuit.window-size:20}")
+    private int windowSize;
+
+    @Value("${ingestion.upstream.circuit.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${ingestion.upstream.circuit.failure-rate-threshold:50}")
+    private double failureRateThreshold;
+
+    @Value("${ingestion.upstream.circuit.open-seconds:30}")
+    private long openSeconds;
+
+    @Value("${ingestion.upstream.circuit.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    @Value("${ingestion.upstream.bulkhead.max-wait-ms:500}")
+    private long bulkheadMaxWaitMs;
+
+    @Bean
+    public UpstreamGuard gitHubUpstreamGuard(
+            MeterRegistry meterRegistry,
+            @Value("${ingestion.github.bulkhead.max-concurrent:50}") int maxConcurrent,
+            @Value("${ingestion.github.call-timeout-seconds:20}") long callTimeoutSeconds) {
+        return new UpstreamGuard("github", settings(maxConcurrent, callTimeoutSeconds), meterRegistry);
+    }
+
+    @Bean
+    public UpstreamGuard leetCodeUpstreamGuard(
+            MeterRegistry meterRegistry,
+            @Value("${ingestion.leetcode.bulkhead.max-concurrent:10}") int maxConcurrent,
+            @Value("${ingestion.leetcode.call-timeout-seconds:15}") long callTimeoutSeconds) {
+        return new UpstreamGuard("leetcode", settings(maxConcurrent, callTimeoutSeconds), meterRegistry);
+    }
+
+    @Bean
+    public UpstreamGuard linkedInUpstreamGuard(
+            MeterRegistry meterRegistry,
+            @Value("${ingestion.linkedin.bulkhead.max-concurrent:4}") int maxConcurrent,
+            @Value("${ingestion.linkedin.call-timeout-seconds:15}") long callTimeoutSeconds) {
+        return new UpstreamGuard("linkedin", settings(maxConcurrent, callTimeoutSeconds), meterRegistry);
+    }
+
+    private UpstreamGuard.Settings settings(int maxConcurrent, long callTimeoutSeconds) {
+        return new UpstreamGuard.Settings(
+                windowSize,
+                minimumCalls,
+                failureRateThreshold,
+                Duration.ofSeconds(openSeconds),
+                halfOpenCalls,
+                maxConcurrent,
+                Duration.ofMillis(bulkheadMaxWaitMs),
+                Duration.ofSeconds(callTimeoutSeconds)
+        );
+    }
+}
@@ -0,0 +1,35 @@
+package com.arte.ingestion.config;
+
+import com.arte.ingestion.client.UpstreamGuard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shows circuit and bulkhead state per upstream under {@code /actuator/health} ({@code upstreams}).
+ * Stays UP while a circuit is open: an upstream outage degrades ingestion but this service is still healthy,
+ * and a DOWN here would get it restarted for nothing.
+ */
+@Component("upstreams")
+@RequiredArgsConstructor
+public class UpstreamHealthIndicator implements HealthIndicator {
+
+    private final List<UpstreamGuard> guards;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = Health.up();
+        for (UpstreamGuard guard : guards) {
+            builder.withDetail(guard.getUpstream(), Map.of(
+                    "state", guard.getState().name(),
+                    "failureRate", guard.getFailureRate(),
+                    "availableConcurrency", guard.getAvailableConcurrency()
+            ));
+        }
+        return builder.build();
+    }
+}
@@ -1,10 +1,13 @@
 package com.arte.ingestion.controller;
 
+import com.arte.ingestion.exception.IngestionInProgressException;
+import com.arte.ingestion.service.FullIngestionService;
 import com.arte.ingestion.service.GitHubIngestionService;
 import com.arte.ingestion.service.LeetCodeIngestionService;
 import com.arte.ingestion.service.ResumeProcessingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,6 +26,7 @@ public class IngestionController {
     private final GitHubIngestionService gitHubIngestionService;
     private final LeetCodeIngestionService leetCodeIngestionService;
     private final ResumeProcessingService resumeProcessingService;
+    private final FullIngestionService fullIngestionService;
 
     /**
      *  GitHub data ingestion for a user.
@@ -51,6 +55,12 @@ public class IngestionController {
                         Map.of()
                 ));
             }
+        } catch (IngestionInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new IngestionResponse(
+                    false,
+                    e.getMessage(),
+                    Map.of()
+            ));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(new IngestionResponse(
                     false,
@@ -93,6 +103,12 @@ public class IngestionController {
                         Map.of()
                 ));
             }
+        } catch (IngestionInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new IngestionResponse(
+                    false,
+                    e.getMessage(),
+                    Map.of()
+            ));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(new IngestionResponse(
                     false,
@@ -138,6 +154,12 @@ public class IngestionController {
                         Map.of()
                 ));
             }
+        } catch (IngestionInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new IngestionResponse(
+                    false,
+                    e.getMessage(),
+                    Map.of()
+            ));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(new IngestionResponse(
                     false,
@@ -170,40 +192,41 @@ public class IngestionController {
             @RequestParam(required = false) String leetcodeUsername) {
         log.info("Received full ingestion request for user: {}", userId);
         
+        // github and leetcode run concurrently, see FullIngestionService
+        var result = fullIngestionService.ingestAll(userId, leetcodeUsername, null);
+
         StringBuilder messages = new StringBuilder();
         boolean allSuccess = true;
         
-        // GitHub ingestion
-        try {
-            var githubResult = gitHubIngestionService.ingestGitHubData(userId);
-            messages.append("GitHub: ").append(githubResult.message());
-            if (!githubResult.success()) {
+        var github = result.github();
+        if (github.failed()) {
+            messages.append("GitHub: Failed - ").append(github.error().getMessage());
+            allSuccess = false;
+        } else {
+            messages.append("GitHub: ").append(github.result().message());
+            if (!github.result().success()) {
                 allSuccess = false;
             }
-        } catch (Exception e) {
-            messages.append("GitHub: Failed - ").append(e.getMessage());
-            allSuccess = false;
         }
         
-        // LeetCode ingestion (if username provided)
-        if (leetcodeUsername != null && !leetcodeUsername.isBlank()) {
+        var leetcode = result.leetcode();
+        if (leetcode != null) {
             messages.append(" | ");
-            try {
-                var leetcodeResult = leetCodeIngestionService.ingestLeetCodeData(userId, leetcodeUsername);
-                messages.append("LeetCode: ").append(leetcodeResult.message());
-                if (!leetcodeResult.success()) {
+            if (leetcode.failed()) {
+                messages.append("LeetCode: Failed - ").append(leetcode.error().getMessage());
+                allSuccess = false;
+            } else {
+                messages.append("LeetCode: ").append(leetcode.result().message());
+                if (!leetcode.result().success()) {
                     allSuccess = false;
                 }
-            } catch (Exception e) {
-                messages.append("LeetCode: Failed - ").append(e.getMessage());
-                allSuccess = false;
             }
         }
         
         return ResponseEntity.ok(new IngestionResponse(
                 allSuccess,
                 messages.toString(),
-                Map.of()
+                Map.of("timingsMs", result.timingsMs())
         ));
     }
 
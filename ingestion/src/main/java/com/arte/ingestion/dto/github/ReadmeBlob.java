@@ -0,0 +1,6 @@
+package com.arte.ingestion.dto.github;
+
+public record ReadmeBlob(
+        String oid,
+        String text
+) {}
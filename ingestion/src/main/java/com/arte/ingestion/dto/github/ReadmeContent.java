@@ -0,0 +1,34 @@
+package com.arte.ingestion.dto.github;
+
+/**
+ * README text as seen by the ingestion, {@code notModified} is set when GitHub answered 304
+ * (or the inline blob oid didn't move) and the text came from the client's validator cache.
+ * {@code unavailable} means the README couldn't be fetched this time (error, deadline), which is not
+ * the same as the repo having none: the stored text must not be replaced by an empty one.
+ * {@code etag}/{@code lastModified} are the validators that came with a fresh README, the client only
+ * caches them once the text is stored, see {@code GitHubGraphQLClient#rememberReadme}.
+ */
+public record ReadmeContent(
+        String text,
+        boolean notModified,
+        boolean unavailable,
+        String etag,
+        String lastModified
+) {
+    public ReadmeContent(String text, boolean notModified) {
+        this(text, notModified, false, null, null);
+    }
+
+    public ReadmeContent(String text, boolean notModified, String etag, String lastModified) {
+        this(text, notModified, false, etag, lastModified);
+    }
+
+    // the repo has no README
+    public static ReadmeContent empty() {
+        return new ReadmeContent("", false);
+    }
+
+    public static ReadmeContent notFetched() {
+        return new ReadmeContent("", false, true, null, null);
+    }
+}
@@ -10,5 +10,6 @@ public record RepositoryNode(
         Integer stargazerCount,
         Integer forkCount,
         PrimaryLanguage primaryLanguage,
-        RepositoryTopics repositoryTopics
+        RepositoryTopics repositoryTopics,
+        ReadmeBlob readme
 ) {}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.arte.ingestion.dto.leetcode;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * Response of the aliased LeetCode user data query, bound straight from the response buffer.
+ * Components mirror the selected fields, so a field added to the query needs a component here too.
+ */
+public record LeetCodeUserDataResponse(
+        Data data,
+        List<GraphQLError> errors
+) {
+    public static LeetCodeUserDataResponse empty() {
+        return new LeetCodeUserDataResponse(null, null);
+    }
+
+    /**
+     * Combines the per-section responses of the fallback path, the first non-null value of each section wins.
+     */
+    public LeetCodeUserDataResponse merge(LeetCodeUserDataResponse other) {
+        if (other.data() == null) {
+            return this;
+        }
+        if (data == null) {
+            return other;
+        }
+        return new LeetCodeUserDataResponse(
+                new Data(
+                        firstNonNull(data.profile(), other.data().profile()),
+                        firstNonNull(data.languages(), other.data().languages()),
+                        firstNonNull(data.recentSubmissions(), other.data().recentSubmissions()),
+                        firstNonNull(data.contestRanking(), other.data().contestRanking()),
+                        firstNonNull(data.contestHistory(), other.data().contestHistory())
+                ),
+                firstNonNull(errors, other.errors())
+        );
+    }
+
+    private static <T> T firstNonNull(T first, T second) {
+        return first != null ? first : second;
+    }
+
+    public record Data(
+            MatchedUser profile,
+            MatchedUser languages,
+            List<Submission> recentSubmissions,
+            ContestRanking contestRanking,
+            List<ContestHistoryEntry> contestHistory
+    ) {}
+
+    public record MatchedUser(
+            String username,
+            Profile profile,
+            SubmitStats submitStatsGlobal,
+            List<Badge> badges,
+            Badge activeBadge,
+            List<LanguageCount> languageProblemCount
+    ) {}
+
+    public record Profile(
+            String realName,
+            String aboutMe,
+            Integer ranking,
+            Integer reputation,
+            Double starRating
+    ) {}
+
+    public record SubmitStats(
+            List<DifficultyCount> acSubmissionNum
+    ) {}
+
+    public record DifficultyCount(
+            String difficulty,
+            Integer count
+    ) {}
+
+    public record Badge(
+            String name,
+            String icon
+    ) {}
+
+    public record LanguageCount(
+            String languageName,
+            Integer problemsSolved
+    ) {}
+
+    public record Submission(
+            String id,
+            String title,
+            String titleSlug,
+            Long timestamp,
+            String lang
+    ) {}
+
+    public record ContestRanking(
+            Integer attendedContestsCount,
+            Double rating,
+            Integer globalRanking,
+            Double topPercentage
+    ) {}
+
+    public record ContestHistoryEntry(
+            Boolean attended,
+            Double rating,
+            Integer ranking,
+            Contest contest
+    ) {}
+
+    public record Contest(
+            String title,
+            Long startTime
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record GraphQLError(
+            String message
+    ) {}
+}
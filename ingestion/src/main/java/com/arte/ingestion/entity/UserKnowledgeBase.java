@@ -44,6 +44,10 @@ public class UserKnowledgeBase {
     @Column(name = "metadata", columnDefinition = "jsonb")
     private Map<String, Object> metadata;
 
+    // sha-256 of content + metadata, see ContentHasher
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     // embedding field is managed by the processing service via gRPC
     
     @Column(name = "created_at", insertable = false, updatable = false)
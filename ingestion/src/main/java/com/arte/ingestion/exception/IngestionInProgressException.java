@@ -0,0 +1,14 @@
+package com.arte.ingestion.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Another replica holds the lease for this user and source, retrying later is safe.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IngestionInProgressException extends RuntimeException {
+    public IngestionInProgressException(String source, Object userId) {
+        super(source + " ingestion already running for user " + userId);
+    }
+}
@@ -0,0 +1,14 @@
+package com.arte.ingestion.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown instead of calling an upstream whose circuit is open or whose bulkhead is full.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class UpstreamUnavailableException extends RuntimeException {
+    public UpstreamUnavailableException(String upstream, String reason) {
+        super(upstream + " unavailable: " + reason);
+    }
+}
@@ -0,0 +1,82 @@
+package com.arte.ingestion.grpc;
+
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps in-flight calls across all connections. With a virtual thread per call nothing else bounds
+ * how many ingestions run at once, so past the limit new calls get RESOURCE_EXHAUSTED right away
+ * (the client retries or backs off) instead of piling onto the database pool and upstream rate limits.
+ */
+@Slf4j
+public class ConcurrencyLimitInterceptor implements ServerInterceptor {
+
+    private final int maxConcurrentCalls;
+    private final Semaphore permits;
+    private final Counter rejected;
+
+    public ConcurrencyLimitInterceptor(int maxConcurrentCalls, MeterRegistry meterRegistry) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.permits = new Semaphore(maxConcurrentCalls);
+
+        Gauge.builder("ingestion.grpc.calls.active", this, ConcurrencyLimitInterceptor::activeCalls)
+                .description("gRPC calls currently in flight")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("ingestion.grpc.calls.rejected")
+                .description("gRPC calls rejected by the concurrent call limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+            ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            log.warn("gRPC: rejecting {}, {} calls already in flight",
+                    call.getMethodDescriptor().getFullMethodName(), maxConcurrentCalls);
+            call.close(Status.RESOURCE_EXHAUSTED.withDescription("Too many concurrent ingestion calls"), new Metadata());
+            return new ServerCall.Listener<>() {};
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+
+        try {
+            return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(call, headers)) {
+                @Override
+                public void onComplete() {
+                    release.run();
+                    super.onComplete();
+                }
+
+                @Override
+                public void onCancel() {
+                    release.run();
+                    super.onCancel();
+                }
+            };
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+    }
+
+    int activeCalls() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+}
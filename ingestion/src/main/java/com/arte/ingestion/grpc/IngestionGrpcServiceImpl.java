@@ -1,15 +1,21 @@
 package com.arte.ingestion.grpc;
 
+import com.arte.ingestion.service.FullIngestionService;
 import com.arte.ingestion.service.GitHubIngestionService;
+import com.arte.ingestion.service.IngestionProgressListener;
 import com.arte.ingestion.service.LeetCodeIngestionService;
+import com.arte.ingestion.service.LinkedInJobBatchScraper;
 import com.arte.ingestion.service.LinkedInJobIngestionService;
 import com.arte.ingestion.service.ResumeProcessingService;
 import com.arte.ingestion.util.ByteArrayMultipartFile;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.UUID;
+import java.util.function.BooleanSupplier;
 
 @Service
 @Slf4j
@@ -19,15 +25,20 @@ public class IngestionGrpcServiceImpl extends IngestionServiceGrpc.IngestionServ
     private final LeetCodeIngestionService leetCodeIngestionService;
     private final ResumeProcessingService resumeProcessingService;
     private final LinkedInJobIngestionService linkedInJobIngestionService;
+    private final FullIngestionService fullIngestionService;
+    private final LinkedInJobBatchScraper linkedInJobBatchScraper;
 
     public IngestionGrpcServiceImpl(
             GitHubIngestionService gitHubIngestionService,
             LeetCodeIngestionService leetCodeIngestionService,
-            ResumeProcessingService resumeProcessingService, LinkedInJobIngestionService linkedInJobIngestionService) {
+            ResumeProcessingService resumeProcessingService, LinkedInJobIngestionService linkedInJobIngestionService,
+            FullIngestionService fullIngestionService, LinkedInJobBatchScraper linkedInJobBatchScraper) {
         this.gitHubIngestionService = gitHubIngestionService;
         this.leetCodeIngestionService = leetCodeIngestionService;
         this.resumeProcessingService = resumeProcessingService;
         this.linkedInJobIngestionService = linkedInJobIngestionService;
+        this.fullIngestionService = fullIngestionService;
+        this.linkedInJobBatchScraper = linkedInJobBatchScraper;
     }
 
     @Override
@@ -125,90 +136,26 @@ public class IngestionGrpcServiceImpl extends IngestionServiceGrpc.IngestionServ
         }
     }
 
+    @Override
+    public StreamObserver<ResumeChunk> ingestResumeStream(StreamObserver<IngestResumeResponse> responseObserver) {
+        return new ResumeUploadObserver(resumeProcessingService, responseObserver);
+    }
+
     @Override
     public void ingestAll(IngestAllRequest request, StreamObserver<IngestAllResponse> responseObserver) {
         log.info("gRPC: Received full ingestion for user: {}", request.getUserId());
         
-        IngestGitHubResponse githubResponse = null;
-        IngestLeetCodeResponse leetcodeResponse = null;
-        IngestResumeResponse resumeResponse = null;
-        boolean overallSuccess = true;
-        
         try {
             UUID userId = UUID.fromString(request.getUserId());
-            
-            // GitHub ingestion
-            try {
-                var githubResult = gitHubIngestionService.ingestGitHubData(userId);
-                githubResponse = IngestGitHubResponse.newBuilder()
-                        .setSuccess(githubResult.success())
-                        .setMessage(githubResult.message())
-                        .setReposProcessed(githubResult.reposProcessed())
-                        .addAllRepoNames(githubResult.repoNames())
-                        .build();
-            } catch (Exception e) {
-                log.warn("GitHub ingestion failed for user: {}", userId, e);
-                githubResponse = IngestGitHubResponse.newBuilder()
-                        .setSuccess(false)
-                        .setMessage("Error: " + e.getMessage())
-                        .build();
-                overallSuccess = false;
-            }
-            
-            // LeetCode ingestion (only if username provided)
-            if (!request.getLeetcodeUsername().isEmpty()) {
-                try {
-                    var leetcodeResult = leetCodeIngestionService.ingestLeetCodeData(
-                            userId, request.getLeetcodeUsername());
-                    leetcodeResponse = IngestLeetCodeResponse.newBuilder()
-                            .setSuccess(leetcodeResult.success())
-                            .setMessage(leetcodeResult.message())
-                            .setProblemsSolved(leetcodeResult.problemsSolved())
-                            .build();
-                } catch (Exception e) {
-                    log.warn("LeetCode ingestion failed for user: {}", userId, e);
-                    leetcodeResponse = IngestLeetCodeResponse.newBuilder()
-                            .setSuccess(false)
-                            .setMessage("Error: " + e.getMessage())
-                            .build();
-                }
-            }
-            
-            // Resume ingestion (only if content provided)
-            if (!request.getResumeContent().isEmpty() && !request.getResumeFilename().isEmpty()) {
-                try {
-                    var file = new ByteArrayMultipartFile(
-                            request.getResumeContent().toByteArray(),
-                            "file",
-                            request.getResumeFilename(),
-                            "application/pdf"
-                    );
-                    var resumeResult = resumeProcessingService.processResume(userId, file);
-                    resumeResponse = IngestResumeResponse.newBuilder()
-                            .setSuccess(resumeResult.success())
-                            .setMessage(resumeResult.message())
-                            .setWordCount(resumeResult.wordCount())
-                            .build();
-                } catch (Exception e) {
-                    log.warn("Resume ingestion failed for user: {}", userId, e);
-                    resumeResponse = IngestResumeResponse.newBuilder()
-                            .setSuccess(false)
-                            .setMessage("Error: " + e.getMessage())
-                            .build();
-                }
-            }
-            
-            var responseBuilder = IngestAllResponse.newBuilder()
-                    .setSuccess(overallSuccess)
-                    .setMessage(overallSuccess ? "Full ingestion completed" : "Some ingestions failed");
 
-            if (githubResponse != null) responseBuilder.setGithubResult(githubResponse);
-            if (leetcodeResponse != null) responseBuilder.setLeetcodeResult(leetcodeResponse);
-            if (resumeResponse != null) responseBuilder.setResumeResult(resumeResponse);
-            
-            responseObserver.onNext(responseBuilder.build());
+            ByteArrayMultipartFile resumeFile = resumeFile(request);
+
+            // github, leetcode and resume run concurrently, each with its own error handling
+            var result = fullIngestionService.ingestAll(userId, request.getLeetcodeUsername(), resumeFile);
+
+            responseObserver.onNext(toIngestAllResponse(result));
             responseObserver.onCompleted();
-            log.info("gRPC: Full ingestion completed for user: {}", userId);
+            log.info("gRPC: Full ingestion completed for user: {} in {}", userId, result.timingsMs());
         } catch (Exception e) {
             log.error("gRPC: Full ingestion failed for user: {}", request.getUserId(), e);
             var response = IngestAllResponse.newBuilder()
@@ -220,6 +167,61 @@ public class IngestionGrpcServiceImpl extends IngestionServiceGrpc.IngestionServ
         }
     }
 
+    /**
+     * Streams the progress of a full ingestion. Events from the concurrent sources are serialized onto the
+     * stream as they happen, the final INGESTION_COMPLETED event carries the same response as {@link #ingestAll}.
+     */
+    @Override
+    public void ingestAllStream(IngestAllRequest request, StreamObserver<IngestionProgressEvent> responseObserver) {
+        log.info("gRPC: Received streaming full ingestion for user: {}", request.getUserId());
+
+        BooleanSupplier cancelled = responseObserver instanceof ServerCallStreamObserver<?> call
+                ? call::isCancelled
+                : () -> false;
+        Object streamLock = new Object();
+
+        IngestionProgressListener listener = (source, stage, message) -> {
+            synchronized (streamLock) {
+                // the client went away, the ingestion still finishes and gets written
+                if (cancelled.getAsBoolean()) {
+                    return;
+                }
+                responseObserver.onNext(IngestionProgressEvent.newBuilder()
+                        .setSource(source)
+                        .setStage(IngestionStage.valueOf(stage.name()))
+                        .setMessage(message)
+                        .setTimestamp(System.currentTimeMillis())
+                        .build());
+            }
+        };
+
+        try {
+            UUID userId = UUID.fromString(request.getUserId());
+            var result = fullIngestionService.ingestAll(
+                    userId, request.getLeetcodeUsername(), resumeFile(request), listener);
+
+            synchronized (streamLock) {
+                if (!cancelled.getAsBoolean()) {
+                    responseObserver.onNext(IngestionProgressEvent.newBuilder()
+                            .setStage(IngestionStage.INGESTION_COMPLETED)
+                            .setMessage("Full ingestion completed")
+                            .setTimestamp(System.currentTimeMillis())
+                            .setResult(toIngestAllResponse(result))
+                            .build());
+                    responseObserver.onCompleted();
+                }
+            }
+            log.info("gRPC: Streaming full ingestion completed for user: {} in {}", userId, result.timingsMs());
+        } catch (Exception e) {
+            log.error("gRPC: Streaming full ingestion failed for user: {}", request.getUserId(), e);
+            synchronized (streamLock) {
+                if (!cancelled.getAsBoolean()) {
+                    responseObserver.onError(Status.INTERNAL.withDescription(e.getMessage()).asRuntimeException());
+                }
+            }
+        }
+    }
+
     @Override
     public void healthCheck(IngestionHealthRequest request, StreamObserver<IngestionHealthResponse> responseObserver) {
         log.debug("gRPC: Health check requested by: {}", request.getServiceName());
@@ -264,4 +266,115 @@ public class IngestionGrpcServiceImpl extends IngestionServiceGrpc.IngestionServ
             responseObserver.onCompleted();
         }
     }
+
+    @Override
+    public void ingestLinkedInJobsBatch(IngestLinkedInJobsBatchRequest request,
+                                        StreamObserver<LinkedInJobBatchEvent> responseObserver) {
+        log.info("gRPC: Received batch job ingestion for user: {}, {} job ids",
+                request.getUserId(), request.getJobIdsCount());
+
+        BooleanSupplier cancelled = responseObserver instanceof ServerCallStreamObserver<?> call
+                ? call::isCancelled
+                : () -> false;
+
+        try {
+            UUID userId = UUID.fromString(request.getUserId());
+            // results arrive one at a time, the scraper serializes them
+            var summary = linkedInJobBatchScraper.scrape(userId, request.getJobIdsList(), cancelled, result -> {
+                if (cancelled.getAsBoolean()) {
+                    return;
+                }
+                responseObserver.onNext(LinkedInJobBatchEvent.newBuilder()
+                        .setJobId(result.jobId())
+                        .setStatus(toBatchStatus(result.status()))
+                        .setMessage(result.message())
+                        .setCompleted(result.completed())
+                        .setTotal(result.total())
+                        .build());
+            });
+            if (!cancelled.getAsBoolean()) {
+                responseObserver.onCompleted();
+            }
+            log.info("gRPC: Batch job ingestion completed for user: {}: {}", userId, summary);
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+        } catch (Exception e) {
+            log.error("gRPC: Batch job ingestion failed for user: {}", request.getUserId(), e);
+            if (!cancelled.getAsBoolean()) {
+                responseObserver.onError(Status.INTERNAL.withDescription(e.getMessage()).asRuntimeException());
+            }
+        }
+    }
+
+    private static LinkedInJobBatchStatus toBatchStatus(LinkedInJobBatchScraper.Status status) {
+        return switch (status) {
+            case EXISTING -> LinkedInJobBatchStatus.JOB_EXISTING;
+            case SCRAPED -> LinkedInJobBatchStatus.JOB_SCRAPED;
+            case NOT_FOUND -> LinkedInJobBatchStatus.JOB_NOT_FOUND;
+            case FAILED -> LinkedInJobBatchStatus.JOB_FAILED;
+        };
+    }
+
+    private ByteArrayMultipartFile resumeFile(IngestAllRequest request) {
+        if (request.getResumeContent().isEmpty() || request.getResumeFilename().isEmpty()) {
+            return null;
+        }
+        return new ByteArrayMultipartFile(
+                request.getResumeContent().toByteArray(),
+                "file",
+                request.getResumeFilename(),
+                "application/pdf"
+        );
+    }
+
+    private IngestAllResponse toIngestAllResponse(FullIngestionService.FullIngestionResult result) {
+        var github = result.github();
+        IngestGitHubResponse githubResponse = github.failed()
+                ? IngestGitHubResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage("Error: " + github.error().getMessage())
+                        .build()
+                : IngestGitHubResponse.newBuilder()
+                        .setSuccess(github.result().success())
+                        .setMessage(github.result().message())
+                        .setReposProcessed(github.result().reposProcessed())
+                        .addAllRepoNames(github.result().repoNames())
+                        .build();
+        boolean overallSuccess = !github.failed();
+
+        var responseBuilder = IngestAllResponse.newBuilder()
+                .setSuccess(overallSuccess)
+                .setMessage(overallSuccess ? "Full ingestion completed" : "Some ingestions failed")
+                .setGithubResult(githubResponse)
+                .putAllSourceTimingsMs(result.timingsMs());
+
+        var leetcode = result.leetcode();
+        if (leetcode != null) {
+            responseBuilder.setLeetcodeResult(leetcode.failed()
+                    ? IngestLeetCodeResponse.newBuilder()
+                            .setSuccess(false)
+                            .setMessage("Error: " + leetcode.error().getMessage())
+                            .build()
+                    : IngestLeetCodeResponse.newBuilder()
+                            .setSuccess(leetcode.result().success())
+                            .setMessage(leetcode.result().message())
+                            .setProblemsSolved(leetcode.result().problemsSolved())
+                            .build());
+        }
+
+        var resume = result.resume();
+        if (resume != null) {
+            responseBuilder.setResumeResult(resume.failed()
+                    ? IngestResumeResponse.newBuilder()
+                            .setSuccess(false)
+                            .setMessage("Error: " + resume.error().getMessage())
+                            .build()
+                    : IngestResumeResponse.newBuilder()
+                            .setSuccess(resume.result().success())
+                            .setMessage(resume.result().message())
+                            .setWordCount(resume.result().wordCount())
+                            .build());
+        }
+        return responseBuilder.build();
+    }
 }
@@ -0,0 +1,151 @@
+package com.arte.ingestion.grpc;
+
+import com.arte.ingestion.service.IngestionProgressListener;
+import com.arte.ingestion.service.ResumeProcessingService;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.UUID;
+
+/**
+ * Receiving side of {@code IngestResumeStream}. Each chunk goes straight into the digest and a temp file,
+ * so memory per upload stays at one chunk no matter how large the PDF is. The file is handed to
+ * {@link ResumeProcessingService} once the client half-closes, and removed afterwards.
+ */
+@Slf4j
+class ResumeUploadObserver implements StreamObserver<ResumeChunk> {
+
+    private final ResumeProcessingService resumeProcessingService;
+    private final StreamObserver<IngestResumeResponse> responseObserver;
+    private final long maxBytes;
+    private final MessageDigest digest = ResumeProcessingService.sha256();
+
+    private UUID userId;
+    private String filename;
+    private Path spool;
+    private FileChannel channel;
+    private long received;
+    private boolean finished;
+
+    ResumeUploadObserver(ResumeProcessingService resumeProcessingService,
+                         StreamObserver<IngestResumeResponse> responseObserver) {
+        this.resumeProcessingService = resumeProcessingService;
+        this.responseObserver = responseObserver;
+        this.maxBytes = resumeProcessingService.maxUploadBytes();
+    }
+
+    @Override
+    public void onNext(ResumeChunk chunk) {
+        if (finished) {
+            return;
+        }
+        try {
+            switch (chunk.getPayloadCase()) {
+                case HEADER -> start(chunk.getHeader());
+                case DATA -> append(chunk.getData().asReadOnlyByteBuffer());
+                default -> reject(Status.INVALID_ARGUMENT.withDescription("empty resume chunk"));
+            }
+        } catch (IllegalArgumentException e) {
+            reject(Status.INVALID_ARGUMENT.withDescription(e.getMessage()));
+        } catch (IOException e) {
+            log.error("gRPC: Failed to spool resume upload for user: {}", userId, e);
+            reject(Status.INTERNAL.withDescription("could not store upload"));
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        log.warn("gRPC: Resume upload aborted by client for user: {}: {}", userId, t.getMessage());
+        finished = true;
+        cleanUp();
+    }
+
+    @Override
+    public void onCompleted() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (channel == null) {
+            cleanUp();
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("missing upload header").asRuntimeException());
+            return;
+        }
+
+        IngestResumeResponse response;
+        try {
+            channel.close();
+            log.info("gRPC: Resume upload received for user: {}, {} bytes", userId, received);
+            var result = resumeProcessingService.processResume(
+                    userId, filename, spool, ResumeProcessingService.toFileHash(digest.digest()),
+                    IngestionProgressListener.NOOP);
+            response = IngestResumeResponse.newBuilder()
+                    .setSuccess(result.success())
+                    .setMessage(result.message())
+                    .setWordCount(result.wordCount())
+                    .build();
+        } catch (Exception e) {
+            log.error("gRPC: Resume ingestion failed for user: {}", userId, e);
+            response = IngestResumeResponse.newBuilder()
+                    .setSuccess(false)
+                    .setMessage("Error: " + e.getMessage())
+                    .build();
+        } finally {
+            cleanUp();
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    private void start(ResumeUploadHeader header) throws IOException {
+        if (channel != null) {
+            throw new IllegalArgumentException("upload header sent twice");
+        }
+        userId = UUID.fromString(header.getUserId());
+        filename = header.getFilename();
+        spool = Files.createTempFile("resume-upload-", ".pdf");
+        channel = FileChannel.open(spool, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        log.info("gRPC: Receiving resume upload for user: {}, filename: {}", userId, filename);
+    }
+
+    private void append(ByteBuffer data) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("upload header must come first");
+        }
+        received += data.remaining();
+        if (received > maxBytes) {
+            throw new IllegalArgumentException("resume exceeds " + maxBytes + " bytes");
+        }
+        digest.update(data.duplicate());
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    private void reject(Status status) {
+        finished = true;
+        cleanUp();
+        responseObserver.onError(status.asRuntimeException());
+    }
+
+    private void cleanUp() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            if (spool != null) {
+                Files.deleteIfExists(spool);
+            }
+        } catch (IOException e) {
+            log.warn("Could not remove resume spool file {}", spool, e);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.arte.ingestion.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Worker side of the {@code ingestion_jobs} table (schema lives in api-core's migrations).
+ * Claiming is a single UPDATE over a {@code FOR UPDATE SKIP LOCKED} subselect, so any number of
+ * workers can poll the same table without handing the same job out twice.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IngestionJobQueue {
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    private static final String CLAIM_SQL = """
+            UPDATE ingestion_jobs
+            SET status = 'RUNNING', attempts = attempts + 1, locked_by = ?, locked_at = NOW()
+            WHERE id IN (
+                SELECT id FROM ingestion_jobs
+                WHERE status = 'PENDING' AND run_after <= NOW()
+                ORDER BY run_after
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING id, user_id, job_type, payload::text, attempts, max_attempts
+            """;
+
+    private static final String COMPLETE_SQL = """
+            UPDATE ingestion_jobs
+            SET status = 'SUCCEEDED', result = CAST(? AS jsonb), error = NULL,
+                locked_by = NULL, locked_at = NULL, finished_at = NOW()
+            WHERE id = ? AND locked_by = ?
+            """;
+
+    // retries go back to PENDING with a pushed back run_after until max_attempts is used up
+    private static final String FAIL_SQL = """
+            UPDATE ingestion_jobs
+            SET status = CASE WHEN ? AND attempts < max_attempts THEN 'PENDING' ELSE 'FAILED' END,
+                run_after = NOW() + CAST(? AS INTERVAL),
+                finished_at = CASE WHEN ? AND attempts < max_attempts THEN NULL ELSE NOW() END,
+                result = CAST(? AS jsonb), error = ?, locked_by = NULL, locked_at = NULL
+            WHERE id = ? AND locked_by = ?
+            """;
+
+    // keeps a long running job's lease fresh so RELEASE_EXPIRED only ever sees jobs of dead workers
+    private static final String HEARTBEAT_SQL = """
+            UPDATE ingestion_jobs SET locked_at = NOW()
+            WHERE id = ? AND locked_by = ? AND status = 'RUNNING'
+            """;
+
+    // a worker that died mid-job never finishes it, hand its jobs back once the lease is up
+    private static final String RELEASE_EXPIRED_SQL = """
+            UPDATE ingestion_jobs
+            SET status = CASE WHEN attempts < max_attempts THEN 'PENDING' ELSE 'FAILED' END,
+                error = 'worker lease expired', locked_by = NULL, locked_at = NULL,
+                finished_at = CASE WHEN attempts < max_attempts THEN NULL ELSE NOW() END
+            WHERE status = 'RUNNING' AND locked_at < NOW() - CAST(? AS INTERVAL)
+            """;
+
+    // skipped when the user already has work queued, whoever queued it. NOT EXISTS alone races under
+    // READ COMMITTED, two concurrent enqueues of the same job meet on uq_ingestion_jobs_active instead
+    private static final String ENQUEUE_SQL = """
+            INSERT INTO ingestion_jobs (user_id, job_type, payload, run_after)
+            SELECT ?, ?, CAST(? AS jsonb), NOW() + CAST(? AS INTERVAL)
+            WHERE NOT EXISTS (
+                SELECT 1 FROM ingestion_jobs
+                WHERE user_id = ? AND status IN ('PENDING', 'RUNNING')
+            )
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String OUTSTANDING_SQL = """
+            SELECT COUNT(*) FROM ingestion_jobs
+            WHERE status IN ('PENDING', 'RUNNING') AND payload ->> 'trigger' = ?
+            """;
+
+    // jobs without a trigger were submitted by the user through api-core
+    private static final String RECENT_USER_JOBS_SQL = """
+            SELECT user_id, COUNT(*) AS jobs FROM ingestion_jobs
+            WHERE user_id = ANY(?) AND created_at >= ? AND payload ->> 'trigger' IS NULL
+            GROUP BY user_id
+            """;
+
+    private static final String RECENTLY_FAILED_SQL = """
+            SELECT DISTINCT user_id FROM ingestion_jobs
+            WHERE user_id = ANY(?) AND status = 'FAILED' AND payload ->> 'trigger' = ? AND finished_at >= ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public List<ClaimedJob> claim(String workerId, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return jdbcTemplate.query(CLAIM_SQL, this::mapJob, workerId, limit);
+    }
+
+    public boolean complete(UUID jobId, String workerId, Map<String, Object> result) {
+        return jdbcTemplate.update(COMPLETE_SQL, toJson(result), jobId, workerId) == 1;
+    }
+
+    /**
+     * @param retryable whether the job goes back to PENDING (if it has attempts left) or straight to FAILED
+     * @param result    optional partial result, kept for the status endpoint
+     */
+    public boolean fail(UUID jobId, String workerId, String error, boolean retryable, Duration backoff,
+                        Map<String, Object> result) {
+        return jdbcTemplate.update(FAIL_SQL, retryable, toInterval(backoff), retryable,
+                result == null ? null : toJson(result), error, jobId, workerId) == 1;
+    }
+
+    /**
+     * @return false when the job is no longer held by {@code workerId}
+     */
+    public boolean heartbeat(UUID jobId, String workerId) {
+        return jdbcTemplate.update(HEARTBEAT_SQL, jobId, workerId) == 1;
+    }
+
+    /**
+     * @return false when the user already had a pending or running job
+     */
+    public boolean enqueue(UUID userId, String type, Map<String, Object> payload, Duration delay) {
+        return jdbcTemplate.update(ENQUEUE_SQL, userId, type, toJson(payload), toInterval(delay), userId) == 1;
+    }
+
+    public int outstanding(String trigger) {
+        Integer count = jdbcTemplate.queryForObject(OUTSTANDING_SQL, Integer.class, trigger);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return user id -> number of jobs the user submitted since {@code since}, users without any are left out
+     */
+    public Map<UUID, Integer> recentUserJobs(Collection<UUID> userIds, Instant since) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<UUID, Integer> counts = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(RECENT_USER_JOBS_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", userIds.toArray()));
+            ps.setTimestamp(2, Timestamp.from(since));
+            return ps;
+        }, (RowCallbackHandler) rs -> counts.put(rs.getObject("user_id", UUID.class), rs.getInt("jobs")));
+        return counts;
+    }
+
+    /**
+     * @return the users among {@code userIds} with a job from {@code trigger} that ended FAILED since {@code since}
+     */
+    public Set<UUID> recentlyFailed(Collection<UUID> userIds, String trigger, Instant since) {
+        if (userIds.isEmpty()) {
+            return Set.of();
+        }
+        Set<UUID> failed = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(RECENTLY_FAILED_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", userIds.toArray()));
+            ps.setString(2, trigger);
+            ps.setTimestamp(3, Timestamp.from(since));
+            return ps;
+        }, (RowCallbackHandler) rs -> failed.add(rs.getObject("user_id", UUID.class)));
+        return failed;
+    }
+
+    public int releaseExpired(Duration lease) {
+        return jdbcTemplate.update(RELEASE_EXPIRED_SQL, toInterval(lease));
+    }
+
+    private ClaimedJob mapJob(ResultSet rs, int rowNum) throws SQLException {
+        return new ClaimedJob(
+                rs.getObject("id", UUID.class),
+                rs.getObject("user_id", UUID.class),
+                rs.getString("job_type"),
+                fromJson(rs.getString("payload")),
+                rs.getInt("attempts"),
+                rs.getInt("max_attempts")
+        );
+    }
+
+    private static String toInterval(Duration duration) {
+        return duration.toMillis() + " milliseconds";
+    }
+
+    private String toJson(Map<String, Object> value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize job result", e);
+        }
+    }
+
+    private Map<String, Object> fromJson(String json) {
+        try {
+            return json == null ? Map.of() : objectMapper.readValue(json, PAYLOAD_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt job payload: " + json, e);
+        }
+    }
+
+    public record ClaimedJob(
+            UUID id,
+            UUID userId,
+            String type,
+            Map<String, Object> payload,
+            int attempts,
+            int maxAttempts
+    ) {
+        public String payloadString(String key) {
+            Object value = payload.get(key);
+            return value == null ? null : value.toString();
+        }
+    }
+}
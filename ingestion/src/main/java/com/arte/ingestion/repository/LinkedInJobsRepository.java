@@ -3,12 +3,19 @@ package com.arte.ingestion.repository;
 import com.arte.ingestion.entity.LinkedInJobs;
 import com.arte.ingestion.entity.Users;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface LinkedInJobsRepository extends JpaRepository<LinkedInJobs,UUID> {
     Optional<LinkedInJobs> findByJobId(String id);
+
+    @Query("SELECT j.jobId FROM LinkedInJobs j WHERE j.jobId IN :jobIds")
+    List<String> findExistingJobIds(@Param("jobIds") Collection<String> jobIds);
 }
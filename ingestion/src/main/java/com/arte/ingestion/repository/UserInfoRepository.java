@@ -1,22 +1,43 @@
 package com.arte.ingestion.repository;
 
 import com.arte.ingestion.entity.UserInfo;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface UserInfoRepository extends JpaRepository<UserInfo, UUID> {
+public interface UserInfoRepository extends JpaRepository<UserInfo, UUID>, UserInfoRepositoryCustom {
 
-    @Query("SELECT ui FROM UserInfo ui WHERE ui.lastIngestedAt < :threshold")
-    List<UserInfo> findStaleUserInfo(@Param("threshold") LocalDateTime threshold);
+    /**
+     * One keyset page of users last ingested before {@code threshold}, stalest first.
+     * Pass the last row's (lastIngestedAt, userId) as the cursor for the next page,
+     * {@code (Instant.EPOCH, new UUID(0, 0))} for the first one.
+     */
+    @Query("""
+            SELECT ui.userId AS userId, ui.lastIngestedAt AS lastIngestedAt, u.leetcodeUsername AS leetcodeUsername
+            FROM UserInfo ui JOIN ui.user u
+            WHERE ui.lastIngestedAt < :threshold
+              AND (ui.lastIngestedAt > :afterIngestedAt
+                   OR (ui.lastIngestedAt = :afterIngestedAt AND ui.userId > :afterUserId))
+            ORDER BY ui.lastIngestedAt, ui.userId
+            """)
+    List<StaleUser> findStaleUserInfo(@Param("threshold") Instant threshold,
+                                      @Param("afterIngestedAt") Instant afterIngestedAt,
+                                      @Param("afterUserId") UUID afterUserId,
+                                      Limit limit);
 
     @Query("SELECT ui FROM UserInfo ui WHERE SIZE(ui.githubStats) > 0")
     List<UserInfo> findUsersWithGitHubData();
 
+    interface StaleUser {
+        UUID getUserId();
+        Instant getLastIngestedAt();
+        String getLeetcodeUsername();
+    }
 }
@@ -0,0 +1,27 @@
+package com.arte.ingestion.repository;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+public interface UserInfoRepositoryCustom {
+
+    enum StatsColumn {
+        GITHUB("github_stats"),
+        LEETCODE("leetcode_stats"),
+        RESUME("resume_summary");
+
+        final String column;
+
+        StatsColumn(String column) {
+            this.column = column;
+        }
+    }
+
+    /**
+     * Writes one stats column and last_ingested_at as a single {@code INSERT ... ON CONFLICT DO UPDATE},
+     * creating the row on a user's first ingestion. The other columns are left alone, so sources
+     * writing at the same time (full ingestion runs them in parallel) never overwrite each other.
+     */
+    void upsertStats(UUID userId, StatsColumn column, Map<String, Object> stats, Instant ingestedAt);
+}
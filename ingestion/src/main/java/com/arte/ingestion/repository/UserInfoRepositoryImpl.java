@@ -0,0 +1,50 @@
+package com.arte.ingestion.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+// picked up by spring data as the fragment implementation of UserInfoRepositoryCustom
+@RequiredArgsConstructor
+class UserInfoRepositoryImpl implements UserInfoRepositoryCustom {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO user_info (user_id, %1$s, last_ingested_at)
+            VALUES (?, CAST(? AS jsonb), ?)
+            ON CONFLICT (user_id) DO UPDATE
+            SET %1$s = EXCLUDED.%1$s,
+                last_ingested_at = EXCLUDED.last_ingested_at
+            """;
+
+    // column names come from the enum only, never from input
+    private static final Map<StatsColumn, String> SQL_BY_COLUMN = new EnumMap<>(StatsColumn.class);
+
+    static {
+        for (StatsColumn column : StatsColumn.values()) {
+            SQL_BY_COLUMN.put(column, UPSERT_SQL.formatted(column.column));
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void upsertStats(UUID userId, StatsColumn column, Map<String, Object> stats, Instant ingestedAt) {
+        jdbcTemplate.update(SQL_BY_COLUMN.get(column), userId, toJson(stats), Timestamp.from(ingestedAt));
+    }
+
+    private String toJson(Map<String, Object> stats) {
+        try {
+            return stats == null ? null : objectMapper.writeValueAsString(stats);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Stats are not serializable", e);
+        }
+    }
+}
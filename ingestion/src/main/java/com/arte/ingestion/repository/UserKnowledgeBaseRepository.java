@@ -12,10 +12,12 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface UserKnowledgeBaseRepository extends JpaRepository<UserKnowledgeBase, UUID> {
+public interface UserKnowledgeBaseRepository extends JpaRepository<UserKnowledgeBase, UUID>, UserKnowledgeBaseRepositoryCustom {
 
     List<UserKnowledgeBase> findByUserId(UUID userId);
 
+    List<UserKnowledgeBase> findAllByUserIdAndSourceType(UUID userId, String sourceType);
+
     Optional<UserKnowledgeBase> findByUserIdAndSourceType(UUID userId, String sourceType);
 
     Optional<UserKnowledgeBase> findByUserIdAndSourceTypeAndSourceUrl(UUID userId, String sourceType, String sourceUrl);
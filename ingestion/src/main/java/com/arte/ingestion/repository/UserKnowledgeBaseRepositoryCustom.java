@@ -0,0 +1,19 @@
+package com.arte.ingestion.repository;
+
+import com.arte.ingestion.entity.UserKnowledgeBase;
+
+import java.util.List;
+
+public interface UserKnowledgeBaseRepositoryCustom {
+
+    /**
+     * Bulk upsert on (user_id, source_type, source_url) as batched
+     * {@code INSERT ... ON CONFLICT DO UPDATE} statements. Rows whose content_hash
+     * didn't change are left untouched, so the updated_at trigger doesn't fire for them.
+     * Every entry needs its user and a non-null source url (NULLs never conflict in postgres).
+     *
+     * @param entries entries to write, may span several users
+     * @return number of rows inserted or updated
+     */
+    int upsertAll(List<UserKnowledgeBase> entries);
+}
@@ -0,0 +1,66 @@
+package com.arte.ingestion.repository;
+
+import com.arte.ingestion.entity.UserKnowledgeBase;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// picked up by spring data as the fragment implementation of UserKnowledgeBaseRepositoryCustom
+@RequiredArgsConstructor
+class UserKnowledgeBaseRepositoryImpl implements UserKnowledgeBaseRepositoryCustom {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO user_knowledge_base (user_id, content, source_type, source_url, metadata, content_hash)
+            VALUES (?, ?, ?, ?, CAST(? AS jsonb), ?)
+            ON CONFLICT (user_id, source_type, source_url) DO UPDATE
+            SET content = EXCLUDED.content,
+                metadata = EXCLUDED.metadata,
+                content_hash = EXCLUDED.content_hash
+            WHERE user_knowledge_base.content_hash IS DISTINCT FROM EXCLUDED.content_hash
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${ingestion.knowledge-base.upsert-batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public int upsertAll(List<UserKnowledgeBase> entries) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        int[][] counts = jdbcTemplate.batchUpdate(UPSERT_SQL, entries, batchSize, this::bind);
+
+        return Arrays.stream(counts)
+                .flatMapToInt(Arrays::stream)
+                .map(count -> Math.max(count, 0))
+                .sum();
+    }
+
+    private void bind(PreparedStatement ps, UserKnowledgeBase entry) throws SQLException {
+        ps.setObject(1, entry.getUser().getId());
+        ps.setString(2, entry.getContent());
+        ps.setString(3, entry.getSourceType());
+        ps.setString(4, entry.getSourceUrl());
+        ps.setString(5, toJson(entry.getMetadata()));
+        ps.setString(6, entry.getContentHash());
+    }
+
+    private String toJson(Map<String, Object> metadata) {
+        try {
+            return objectMapper.writeValueAsString(metadata != null ? metadata : Map.of());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Metadata is not serializable", e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.arte.ingestion.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs GitHub, LeetCode and resume ingestion for one user concurrently, they share nothing but the user row.
+ * Each source is isolated: a failure is captured in its {@link SourceOutcome} and never cancels the others,
+ * so the whole call takes as long as the slowest source.
+ */
+@Service
+@Slf4j
+public class FullIngestionService {
+
+    private final GitHubIngestionService gitHubIngestionService;
+    private final LeetCodeIngestionService leetCodeIngestionService;
+    private final ResumeProcessingService resumeProcessingService;
+    private final Executor ingestionExecutor;
+
+    public FullIngestionService(
+            GitHubIngestionService gitHubIngestionService,
+            LeetCodeIngestionService leetCodeIngestionService,
+            ResumeProcessingService resumeProcessingService,
+            @Qualifier("ingestionExecutor") Executor ingestionExecutor) {
+        this.gitHubIngestionService = gitHubIngestionService;
+        this.leetCodeIngestionService = leetCodeIngestionService;
+        this.resumeProcessingService = resumeProcessingService;
+        this.ingestionExecutor = ingestionExecutor;
+    }
+
+    /**
+     * @param leetcodeUsername skipped when blank
+     * @param resume           skipped when null
+     */
+    public FullIngestionResult ingestAll(UUID userId, String leetcodeUsername, MultipartFile resume) {
+        return ingestAll(userId, leetcodeUsername, resume, IngestionProgressListener.NOOP);
+    }
+
+    /**
+     * Same as {@link #ingestAll(UUID, String, MultipartFile)}, every source reports SOURCE_STARTED,
+     * its own stages and then SOURCE_COMPLETED or SOURCE_FAILED. The listener is called from several threads.
+     */
+    public FullIngestionResult ingestAll(UUID userId, String leetcodeUsername, MultipartFile resume,
+                                         IngestionProgressListener listener) {
+        var github = run("github", userId, listener,
+                () -> gitHubIngestionService.ingestGitHubData(userId, listener));
+
+        CompletableFuture<SourceOutcome<LeetCodeIngestionService.IngestionResult>> leetcode =
+                leetcodeUsername != null && !leetcodeUsername.isBlank()
+                        ? run("leetcode", userId, listener,
+                                () -> leetCodeIngestionService.ingestLeetCodeData(userId, leetcodeUsername, listener))
+                        : CompletableFuture.completedFuture(null);
+
+        CompletableFuture<SourceOutcome<ResumeProcessingService.ProcessingResult>> resumeResult =
+                resume != null
+                        ? run("resume", userId, listener,
+                                () -> resumeProcessingService.processResume(userId, resume, listener))
+                        : CompletableFuture.completedFuture(null);
+
+        CompletableFuture.allOf(github, leetcode, resumeResult).join();
+
+        return new FullIngestionResult(github.join(), leetcode.join(), resumeResult.join());
+    }
+
+    private <T> CompletableFuture<SourceOutcome<T>> run(String source, UUID userId, IngestionProgressListener listener,
+                                                        Callable<T> ingestion) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            listener.onProgress(source, IngestionProgressListener.Stage.SOURCE_STARTED, "");
+            try {
+                T result = ingestion.call();
+                listener.onProgress(source, IngestionProgressListener.Stage.SOURCE_COMPLETED, "");
+                return new SourceOutcome<>(result, null, elapsedMs(start));
+            } catch (Exception e) {
+                log.warn("{} ingestion failed for user: {}", source, userId, e);
+                listener.onProgress(source, IngestionProgressListener.Stage.SOURCE_FAILED, String.valueOf(e.getMessage()));
+                return new SourceOutcome<>(null, e, elapsedMs(start));
+            }
+        }, ingestionExecutor);
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Result of one source, exactly one of {@code result} and {@code error} is set.
+     */
+    public record SourceOutcome<T>(
+            T result,
+            Exception error,
+            long durationMs
+    ) {
+        public boolean failed() {
+            return error != null;
+        }
+    }
+
+    /**
+     * A source that wasn't requested has a null outcome.
+     */
+    public record FullIngestionResult(
+            SourceOutcome<GitHubIngestionService.IngestionResult> github,
+            SourceOutcome<LeetCodeIngestionService.IngestionResult> leetcode,
+            SourceOutcome<ResumeProcessingService.ProcessingResult> resume
+    ) {
+        public Map<String, Long> timingsMs() {
+            Map<String, Long> timings = new LinkedHashMap<>();
+            if (github != null) timings.put("github", github.durationMs());
+            if (leetcode != null) timings.put("leetcode", leetcode.durationMs());
+            if (resume != null) timings.put("resume", resume.durationMs());
+            return timings;
+        }
+    }
+}
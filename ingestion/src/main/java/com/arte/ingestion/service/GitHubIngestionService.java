@@ -2,22 +2,24 @@ package com.arte.ingestion.service;
 
 import com.arte.ingestion.client.GitHubGraphQLClient;
 import com.arte.ingestion.dto.github.GitHubGraphQLResponse;
+import com.arte.ingestion.dto.github.ReadmeContent;
 import com.arte.ingestion.dto.github.RepositoryNode;
-import com.arte.ingestion.entity.UserInfo;
 import com.arte.ingestion.entity.UserKnowledgeBase;
 import com.arte.ingestion.entity.Users;
 import com.arte.ingestion.entity.github.GitHubStats;
 import com.arte.ingestion.entity.github.RepoSummary;
-import com.arte.ingestion.repository.UserInfoRepository;
 import com.arte.ingestion.repository.UserKnowledgeBaseRepository;
 import com.arte.ingestion.repository.UserRepository;
+import com.arte.ingestion.util.ContentHasher;
+import com.arte.ingestion.util.SingleFlight;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 
-import java.time.Instant;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -27,21 +29,49 @@ import java.util.*;
 public class GitHubIngestionService {
 
     private static final String SOURCE_TYPE = "github";
+    private static final int DEFAULT_README_CONCURRENCY = 4;
+    private static final int DEFAULT_README_TIMEOUT_SECONDS = 10;
+
+    @Value("${ingestion.github.readme-concurrency:" + DEFAULT_README_CONCURRENCY + "}")
+    private int readmeConcurrency;
+
+    @Value("${ingestion.github.readme-timeout-seconds:" + DEFAULT_README_TIMEOUT_SECONDS + "}")
+    private int readmeTimeoutSeconds;
+
+    @Value("${ingestion.single-flight.result-ttl-seconds:10}")
+    private long singleFlightTtlSeconds;
+
+    // a double-click or retry while a run is going joins that run instead of starting a second one
+    private final SingleFlight<UUID, IngestionResult> inFlight = new SingleFlight<>();
 
     private final GitHubGraphQLClient gitHubGraphQLClient;
     private final UserRepository userRepository;
-    private final UserInfoRepository userInfoRepository;
     private final UserKnowledgeBaseRepository knowledgeBaseRepository;
+    private final IngestionWriteService ingestionWriteService;
     private final ObjectMapper objectMapper;
+    private final IngestionLeaseLock ingestionLeaseLock;
 
     /**
      * Ingests user's github pinned repos, readme, and after that this triggers embedding gen.
+     * All GitHub I/O happens outside any transaction, only the final write is transactional.
      *
      * @param userId user's UUID? what else lol
      * @return IngestionResult with all the details of what was ingested
      */
-    @Transactional
     public IngestionResult ingestGitHubData(UUID userId) {
+        return ingestGitHubData(userId, IngestionProgressListener.NOOP);
+    }
+
+    /**
+     * Same as {@link #ingestGitHubData(UUID)}, reporting REPOS_FETCHED once and README_PARSED per repo.
+     * Callers that join a run already in flight share its result but get no progress events.
+     */
+    public IngestionResult ingestGitHubData(UUID userId, IngestionProgressListener listener) {
+        return inFlight.execute(userId, Duration.ofSeconds(singleFlightTtlSeconds),
+                () -> ingestionLeaseLock.withLock(userId, SOURCE_TYPE, () -> ingest(userId, listener)));
+    }
+
+    private IngestionResult ingest(UUID userId, IngestionProgressListener listener) {
         log.info("Starting GitHub ingestion for user: {}", userId);
 
         Users user = userRepository.findById(userId)
@@ -60,16 +90,37 @@ public class GitHubIngestionService {
 
         List<RepositoryNode> pinnedRepos = response.data().user().pinnedItems().nodes();
         log.info("Found {} pinned repos for user: {}", pinnedRepos.size(), githubUsername);
+        listener.onProgress(SOURCE_TYPE, IngestionProgressListener.Stage.REPOS_FETCHED,
+                pinnedRepos.size() + " pinned repos");
+
+        // 2. take the inline readme.md blobs, fetch the rest concurrently, then build the stats
+        Map<String, ReadmeContent> readmes = new HashMap<>();
+        List<RepositoryNode> missingReadmes = new ArrayList<>();
+        for (RepositoryNode repo : pinnedRepos) {
+            if (repo.readme() != null && repo.readme().text() != null) {
+                readmes.put(repo.url(), gitHubGraphQLClient.resolveInlineReadme(repo.url(), githubToken, repo.readme()));
+                listener.onProgress(SOURCE_TYPE, IngestionProgressListener.Stage.README_PARSED, repo.name());
+            } else {
+                missingReadmes.add(repo);
+            }
+        }
+        if (!missingReadmes.isEmpty()) {
+            log.debug("Falling back to REST for {} READMEs", missingReadmes.size());
+            readmes.putAll(fetchReadmes(missingReadmes, githubToken, listener));
+        }
 
-        // 2. build the stats and fetch readme.md
         List<RepoSummary> repoSummaries = new ArrayList<>();
-        List<UserKnowledgeBase>
-                knowledgeBaseEntries = new ArrayList<>();
+        List<UserKnowledgeBase> changedEntries = new ArrayList<>();
         Map<String, Integer> languageDistribution = new HashMap<>();
         Set<String> allTopics = new HashSet<>();
         int totalStars = 0;
         int totalForks = 0;
 
+        // one SELECT for every existing github row instead of one per repo
+        Map<String, UserKnowledgeBase> existingEntries = new HashMap<>();
+        knowledgeBaseRepository.findAllByUserIdAndSourceType(userId, SOURCE_TYPE)
+                .forEach(kb -> existingEntries.put(kb.getSourceUrl(), kb));
+
         for (RepositoryNode repo : pinnedRepos) {
             // aggregate up all the stats
             totalStars += repo.stargazerCount() != null ? repo.stargazerCount() : 0;
@@ -91,38 +142,55 @@ public class GitHubIngestionService {
                     .primaryLanguage(primaryLang)
                     .build());
 
-            // fetch the readme.md and build knowledge base entry
-            String readme = gitHubGraphQLClient.fetchReadme(repo.url(), githubToken);
-            String content = buildRepoContent(repo, readme);
+            // build knowledge base entry from the prefetched readme.md
+            // not in the map: the fetch missed the deadline
+            ReadmeContent readme = readmes.getOrDefault(repo.url(), ReadmeContent.notFetched());
 
             List<String> topics = extractTopics(repo);
             Map<String, Object> metadata = Map.of(
                     "repoName", repo.name(),
                     "repoUrl", repo.url(),
+                    "description", repo.description() != null ? repo.description() : "",
                     "primaryLanguage", primaryLang,
                     "stars", repo.stargazerCount() != null ? repo.stargazerCount() : 0,
                     "forks", repo.forkCount() != null ? repo.forkCount() : 0,
                     "topics", topics
             );
 
-            UserKnowledgeBase entry = knowledgeBaseRepository
-                    .findByUserIdAndSourceTypeAndSourceUrl(userId, SOURCE_TYPE, repo.url())
-                    .map(existing -> {
-                        existing.setContent(content);
-                        existing.setMetadata(metadata);
-                        return existing;
-                    })
-                    .orElse(UserKnowledgeBase.builder()
-                            .content(content)
-                            .sourceType(SOURCE_TYPE)
-                            .sourceUrl(repo.url())
-                            .metadata(metadata)
-                            .build());
-
-            knowledgeBaseEntries.add(knowledgeBaseRepository.save(entry));
+            Optional<UserKnowledgeBase> existingEntry = Optional.ofNullable(existingEntries.get(repo.url()));
+
+            // README couldn't be fetched, rebuilding would drop it from the stored row
+            if (readme.unavailable() && existingEntry.isPresent()) {
+                log.warn("README unavailable, keeping the stored entry: {}", repo.url());
+                continue;
+            }
+
+            // README answered 304 and nothing else in the content changed, keep the row as is
+            if (readme.notModified() && existingEntry.isPresent()
+                    && metadata.equals(existingEntry.get().getMetadata())) {
+                log.debug("Repo unchanged, skipping rebuild: {}", repo.url());
+                continue;
+            }
+
+            String content = buildRepoContent(repo, readme.text());
+            String contentHash = ContentHasher.fingerprint(content, metadata);
+
+            if (existingEntry.isPresent() && contentHash.equals(existingEntry.get().getContentHash())) {
+                log.debug("Repo content hash unchanged, skipping write: {}", repo.url());
+                continue;
+            }
+
+            changedEntries.add(UserKnowledgeBase.builder()
+                    .user(user)
+                    .content(content)
+                    .sourceType(SOURCE_TYPE)
+                    .sourceUrl(repo.url())
+                    .metadata(metadata)
+                    .contentHash(contentHash)
+                    .build());
         }
 
-        // 3. update the user_info with github stats
+        // 3. build the user_info github stats
         GitHubStats githubStats = GitHubStats.builder()
                 .totalStars(totalStars)
                 .totalForks(totalForks)
@@ -133,14 +201,12 @@ public class GitHubIngestionService {
                 .lastSynced(LocalDateTime.now())
                 .build();
 
-        UserInfo userInfo = userInfoRepository.findById(userId)
-                .orElse(UserInfo.builder()
-                        .user(user)
-                        .build());
+        // 4. short write-only transaction: one batched upsert for everything that changed + user_info
+        int written = ingestionWriteService.writeGitHub(user, changedEntries, objectMapper.convertValue(githubStats, Map.class));
+        log.debug("Upserted {} of {} github knowledge base entries for user {}", written, pinnedRepos.size(), userId);
 
-        userInfo.setGithubStats(objectMapper.convertValue(githubStats, Map.class));
-        userInfo.setLastIngestedAt(Instant.now());
-        userInfoRepository.save(userInfo);
+        // README validators only once the rows built from them are committed, see rememberReadme
+        readmes.forEach((repoUrl, readme) -> gitHubGraphQLClient.rememberReadme(repoUrl, githubToken, readme));
 
         log.info("GitHub ingestion completed for user {}: {} repos processed", userId, pinnedRepos.size());
 
@@ -152,6 +218,31 @@ public class GitHubIngestionService {
         );
     }
 
+    /**
+     * Fans out the README requests with at most {@code readmeConcurrency} in flight for this user.
+     * Whatever hasn't arrived by the deadline is dropped, so the caller waits on the slowest fetch
+     * or the deadline, whichever comes first.
+     *
+     * @return README text keyed by repo url, repos missing from the map timed out
+     */
+    private Map<String, ReadmeContent> fetchReadmes(List<RepositoryNode> repos, String token, IngestionProgressListener listener) {
+        Map<String, ReadmeContent> readmes = Flux.fromIterable(repos)
+                .flatMap(repo -> gitHubGraphQLClient.fetchReadmeAsync(repo.url(), token)
+                        .doOnNext(readme -> listener.onProgress(SOURCE_TYPE, IngestionProgressListener.Stage.README_PARSED, repo.name()))
+                        .map(readme -> Map.entry(repo.url(), readme)), readmeConcurrency)
+                .take(Duration.ofSeconds(readmeTimeoutSeconds))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block();
+
+        if (readmes == null) {
+            return Map.of();
+        }
+        if (readmes.size() < repos.size()) {
+            log.warn("Fetched {} of {} READMEs before the {}s deadline", readmes.size(), repos.size(), readmeTimeoutSeconds);
+        }
+        return readmes;
+    }
+
     private String buildRepoContent(RepositoryNode repo, String readme) {
         StringBuilder content = new StringBuilder();
         content.append("Repository: ").append(repo.name()).append("\n");
@@ -0,0 +1,262 @@
+package com.arte.ingestion.service;
+
+import com.arte.ingestion.exception.IngestionInProgressException;
+import com.arte.ingestion.exception.UpstreamUnavailableException;
+import com.arte.ingestion.repository.IngestionJobQueue;
+import com.arte.ingestion.repository.IngestionJobQueue.ClaimedJob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Drains {@code ingestion_jobs}. Every poll claims at most as many jobs as there are free slots,
+ * runs them on the ingestion executor and records the outcome on the row for api-core to read back.
+ * Upstream outages and leases held by another replica are retried with a growing backoff,
+ * bad input fails the job straight away. While a job runs its {@code locked_at} is touched every third
+ * of the lease, so only jobs of workers that died are ever handed back by the lease check.
+ * <p>
+ * Disable with {@code ingestion.jobs.worker.enabled=false} on instances that should only serve gRPC.
+ */
+@Component
+@ConditionalOnProperty(name = "ingestion.jobs.worker.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class IngestionJobWorker {
+
+    private final IngestionJobQueue jobQueue;
+    private final GitHubIngestionService gitHubIngestionService;
+    private final LeetCodeIngestionService leetCodeIngestionService;
+    private final LinkedInJobIngestionService linkedInJobIngestionService;
+    private final FullIngestionService fullIngestionService;
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore slots;
+    private final String workerId;
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("ingestion-job-heartbeat").daemon().factory());
+
+    @Value("${ingestion.jobs.worker.lease-seconds:900}")
+    private long leaseSeconds;
+
+    @Value("${ingestion.jobs.worker.retry-backoff-seconds:30}")
+    private long retryBackoffSeconds;
+
+    public IngestionJobWorker(IngestionJobQueue jobQueue,
+                              GitHubIngestionService gitHubIngestionService,
+                              LeetCodeIngestionService leetCodeIngestionService,
+                              LinkedInJobIngestionService linkedInJobIngestionService,
+                              FullIngestionService fullIngestionService,
+                              @Qualifier("ingestionExecutor") Executor executor,
+                              MeterRegistry meterRegistry,
+                              @Value("${ingestion.jobs.worker.concurrency:8}") int concurrency) {
+        this.jobQueue = jobQueue;
+        this.gitHubIngestionService = gitHubIngestionService;
+        this.leetCodeIngestionService = leetCodeIngestionService;
+        this.linkedInJobIngestionService = linkedInJobIngestionService;
+        this.fullIngestionService = fullIngestionService;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.slots = new Semaphore(concurrency);
+        this.workerId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+        meterRegistry.gauge("ingestion.jobs.worker.free.slots", slots, Semaphore::availablePermits);
+    }
+
+    @Scheduled(fixedDelayString = "${ingestion.jobs.worker.poll-interval-ms:1000}")
+    public void poll() {
+        int free = slots.availablePermits();
+        if (free == 0) {
+            return;
+        }
+
+        List<ClaimedJob> jobs;
+        try {
+            jobs = jobQueue.claim(workerId, free);
+        } catch (RuntimeException e) {
+            log.warn("Could not claim ingestion jobs: {}", e.getMessage());
+            return;
+        }
+
+        for (ClaimedJob job : jobs) {
+            // only this thread acquires, so the permits counted above are still there
+            slots.acquireUninterruptibly();
+            try {
+                executor.execute(() -> {
+                    try {
+                        run(job);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                slots.release();
+                jobQueue.fail(job.id(), workerId, "worker shutting down", true, Duration.ZERO, null);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ingestion.jobs.worker.lease-check-interval-ms:60000}")
+    public void releaseExpiredLeases() {
+        int released = jobQueue.releaseExpired(Duration.ofSeconds(leaseSeconds));
+        if (released > 0) {
+            log.warn("Released {} ingestion jobs whose worker lease expired", released);
+        }
+    }
+
+    void run(ClaimedJob job) {
+        log.info("Running {} ingestion job {} for user {} (attempt {}/{})",
+                job.type(), job.id(), job.userId(), job.attempts(), job.maxAttempts());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome;
+
+        long heartbeatEveryMs = Math.max(TimeUnit.SECONDS.toMillis(leaseSeconds) / 3, 1);
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(
+                () -> heartbeat(job), heartbeatEveryMs, heartbeatEveryMs, TimeUnit.MILLISECONDS);
+        try {
+            JobOutcome result = execute(job);
+            if (result.success()) {
+                jobQueue.complete(job.id(), workerId, result.body());
+                outcome = "succeeded";
+            } else {
+                jobQueue.fail(job.id(), workerId, result.message(), false, Duration.ZERO, result.body());
+                outcome = "failed";
+            }
+        } catch (UpstreamUnavailableException | IngestionInProgressException | UncheckedIOException e) {
+            log.warn("Ingestion job {} hit an upstream problem, will retry: {}", job.id(), e.getMessage());
+            jobQueue.fail(job.id(), workerId, e.getMessage(), true, backoff(job.attempts()), null);
+            outcome = job.attempts() < job.maxAttempts() ? "retried" : "failed";
+        } catch (Exception e) {
+            log.error("Ingestion job {} failed", job.id(), e);
+            jobQueue.fail(job.id(), workerId, e.getMessage(), false, Duration.ZERO, null);
+            outcome = "failed";
+        } finally {
+            heartbeat.cancel(false);
+        }
+
+        sample.stop(Timer.builder("ingestion.jobs.run")
+                .tag("type", job.type())
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+        Counter.builder("ingestion.jobs.completed")
+                .tag("type", job.type())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void heartbeat(ClaimedJob job) {
+        try {
+            if (!jobQueue.heartbeat(job.id(), workerId)) {
+                log.warn("Lost the lease on ingestion job {}, it may run again elsewhere", job.id());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not renew the lease on ingestion job {}: {}", job.id(), e.getMessage());
+        }
+    }
+
+    private JobOutcome execute(ClaimedJob job) {
+        return switch (job.type()) {
+            case "GITHUB" -> {
+                var result = gitHubIngestionService.ingestGitHubData(job.userId());
+                yield new JobOutcome(result.success(), result.message(), Map.of(
+                        "success", result.success(),
+                        "message", result.message(),
+                        "reposProcessed", result.reposProcessed(),
+                        "repoNames", result.repoNames()));
+            }
+            case "LEETCODE" -> {
+                var result = leetCodeIngestionService.ingestLeetCodeData(job.userId(), job.payloadString("leetcodeUsername"));
+                yield new JobOutcome(result.success(), result.message(), Map.of(
+                        "success", result.success(),
+                        "message", result.message(),
+                        "problemsSolved", result.problemsSolved()));
+            }
+            case "LINKEDIN" -> {
+                var result = ingestLinkedInJob(job);
+                yield new JobOutcome(result.success(), result.message(), Map.of(
+                        "success", result.success(),
+                        "message", result.message()));
+            }
+            case "FULL" -> fullOutcome(fullIngestionService.ingestAll(
+                    job.userId(), job.payloadString("leetcodeUsername"), null));
+            default -> throw new IllegalArgumentException("Unknown ingestion job type: " + job.type());
+        };
+    }
+
+    // the scrape's network errors are retried like any other upstream problem
+    private LinkedInJobIngestionService.LinkedInIngestionResult ingestLinkedInJob(ClaimedJob job) {
+        try {
+            return linkedInJobIngestionService.ingestLinkedInJob(job.userId(), job.payloadString("jobId"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+    }
+
+    // a full ingestion counts as done when at least one source went through
+    private JobOutcome fullOutcome(FullIngestionService.FullIngestionResult result) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        boolean github = addSource(body, "github", result.github(),
+                r -> ((GitHubIngestionService.IngestionResult) r).success());
+        boolean leetcode = addSource(body, "leetcode", result.leetcode(),
+                r -> ((LeetCodeIngestionService.IngestionResult) r).success());
+        body.put("timingsMs", result.timingsMs());
+
+        boolean anySucceeded = github || leetcode;
+        return new JobOutcome(anySucceeded, anySucceeded ? "ok" : "all sources failed", body);
+    }
+
+    private static boolean addSource(Map<String, Object> body, String name, FullIngestionService.SourceOutcome<?> outcome,
+                                     Predicate<Object> succeeded) {
+        if (outcome == null) {
+            return false;
+        }
+        if (outcome.failed()) {
+            body.put(name, Map.of("success", false, "message", String.valueOf(outcome.error().getMessage())));
+            return false;
+        }
+        body.put(name, outcome.result());
+        return succeeded.test(outcome.result());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+    }
+
+    private Duration backoff(int attempts) {
+        return Duration.ofSeconds(retryBackoffSeconds * (1L << Math.min(attempts - 1, 6)));
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "ingestion";
+        }
+    }
+
+    private record JobOutcome(boolean success, String message, Map<String, Object> body) {}
+}
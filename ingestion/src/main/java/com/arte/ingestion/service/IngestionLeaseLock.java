@@ -0,0 +1,155 @@
+package com.arte.ingestion.service;
+
+import com.arte.ingestion.exception.IngestionInProgressException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cross-replica lock so only one ingestion instance works on a (user, source) at a time.
+ * Leases are rows in {@code ingestion_locks} rather than advisory locks: an advisory lock lives on a session,
+ * which would pin a pooled connection for the whole ingestion, while a lease only touches the database
+ * to take, renew and drop it. A lease that stops being renewed (crashed replica) can be taken over after it expires.
+ * <p>
+ * Metrics: {@code ingestion.lock.acquired}, {@code ingestion.lock.contended} and {@code ingestion.lock.wait}, tagged by source.
+ */
+@Component
+@Slf4j
+public class IngestionLeaseLock {
+
+    private static final String ACQUIRE_SQL = """
+            INSERT INTO ingestion_locks (lock_key, owner, acquired_at, expires_at)
+            VALUES (?, ?, NOW(), NOW() + CAST(? AS INTERVAL))
+            ON CONFLICT (lock_key) DO UPDATE
+            SET owner = EXCLUDED.owner, acquired_at = EXCLUDED.acquired_at, expires_at = EXCLUDED.expires_at
+            WHERE ingestion_locks.expires_at < NOW()
+            """;
+
+    private static final String RENEW_SQL = """
+            UPDATE ingestion_locks SET expires_at = NOW() + CAST(? AS INTERVAL)
+            WHERE lock_key = ? AND owner = ?
+            """;
+
+    private static final String RELEASE_SQL = "DELETE FROM ingestion_locks WHERE lock_key = ? AND owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("ingestion-lease-renewer").daemon().factory());
+
+    @Value("${ingestion.lock.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ingestion.lock.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${ingestion.lock.wait-ms:2000}")
+    private long waitMs;
+
+    @Value("${ingestion.lock.retry-interval-ms:250}")
+    private long retryIntervalMs;
+
+    public IngestionLeaseLock(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs {@code work} while holding the lease for (userId, source), renewing it every third of the lease.
+     * Waits up to {@code ingestion.lock.wait-ms} for another replica to finish.
+     *
+     * @throws IngestionInProgressException when the lease is still held by someone else after waiting
+     */
+    public <T> T withLock(UUID userId, String source, Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+
+        String key = userId + ":" + source;
+        String owner = UUID.randomUUID().toString();
+        acquire(key, owner, userId, source);
+
+        long renewEveryMs = Math.max(TimeUnit.SECONDS.toMillis(leaseSeconds) / 3, 1);
+        ScheduledFuture<?> renewal = renewer.scheduleAtFixedRate(
+                () -> renew(key, owner), renewEveryMs, renewEveryMs, TimeUnit.MILLISECONDS);
+        try {
+            return work.get();
+        } finally {
+            renewal.cancel(false);
+            release(key, owner);
+        }
+    }
+
+    private void acquire(String key, String owner, UUID userId, String source) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs);
+        boolean contended = false;
+
+        try {
+            while (!tryAcquire(key, owner)) {
+                if (!contended) {
+                    contended = true;
+                    counter("ingestion.lock.contended", source).increment();
+                    log.info("{} ingestion for user {} is running elsewhere, waiting up to {}ms", source, userId, waitMs);
+                }
+                if (System.nanoTime() >= deadline) {
+                    throw new IngestionInProgressException(source, userId);
+                }
+                Thread.sleep(retryIntervalMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IngestionInProgressException(source, userId);
+        } finally {
+            sample.stop(Timer.builder("ingestion.lock.wait")
+                    .description("Time spent waiting for an ingestion lease")
+                    .tag("source", source)
+                    .register(meterRegistry));
+        }
+        counter("ingestion.lock.acquired", source).increment();
+    }
+
+    private boolean tryAcquire(String key, String owner) {
+        return jdbcTemplate.update(ACQUIRE_SQL, key, owner, leaseSeconds + " seconds") == 1;
+    }
+
+    private void renew(String key, String owner) {
+        try {
+            if (jdbcTemplate.update(RENEW_SQL, leaseSeconds + " seconds", key, owner) == 0) {
+                log.warn("Lost ingestion lease {}, another replica may have taken over", key);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not renew ingestion lease {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void release(String key, String owner) {
+        try {
+            jdbcTemplate.update(RELEASE_SQL, key, owner);
+        } catch (RuntimeException e) {
+            // the lease runs out on its own
+            log.warn("Could not release ingestion lease {}: {}", key, e.getMessage());
+        }
+    }
+
+    private Counter counter(String name, String source) {
+        return Counter.builder(name).tag("source", source).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+    }
+}
@@ -0,0 +1,24 @@
+package com.arte.ingestion.service;
+
+/**
+ * Receives progress of a running ingestion, e.g. to stream it to the client.
+ * Sources of a full ingestion run concurrently, so implementations must be thread safe.
+ */
+@FunctionalInterface
+public interface IngestionProgressListener {
+
+    IngestionProgressListener NOOP = (source, stage, message) -> { };
+
+    void onProgress(String source, Stage stage, String message);
+
+    // names match IngestionStage in ingestion_service.proto
+    enum Stage {
+        SOURCE_STARTED,
+        REPOS_FETCHED,
+        README_PARSED,
+        LEETCODE_SECTION_DONE,
+        RESUME_PARSED,
+        SOURCE_COMPLETED,
+        SOURCE_FAILED
+    }
+}
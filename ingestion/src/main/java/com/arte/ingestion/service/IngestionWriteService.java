@@ -0,0 +1,88 @@
+package com.arte.ingestion.service;
+
+import com.arte.ingestion.entity.UserKnowledgeBase;
+import com.arte.ingestion.entity.Users;
+import com.arte.ingestion.repository.UserInfoRepository;
+import com.arte.ingestion.repository.UserInfoRepositoryCustom.StatsColumn;
+import com.arte.ingestion.repository.UserKnowledgeBaseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Write phase of the ingestion pipeline. The ingestion services fetch and transform with no
+ * transaction open, then hand the finished rows to one of these short write-only transactions,
+ * so a pooled JDBC connection is only held for the writes themselves.
+ * <p>
+ * Commit time is recorded as {@code ingestion.db.write} (tagged by source), pool occupancy itself is
+ * published by Spring Boot as {@code hikaricp.connections.active/pending/usage}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IngestionWriteService {
+
+    private final UserInfoRepository userInfoRepository;
+    private final UserKnowledgeBaseRepository knowledgeBaseRepository;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param entries changed github knowledge base rows, upserted in one batch
+     * @return number of knowledge base rows actually written
+     */
+    @Transactional
+    public int writeGitHub(Users user, List<UserKnowledgeBase> entries, Map<String, Object> githubStats) {
+        return timed("github", () -> {
+            int written = knowledgeBaseRepository.upsertAll(entries);
+            updateUserInfo(user, StatsColumn.GITHUB, githubStats);
+            return written;
+        });
+    }
+
+    /**
+     * @return number of knowledge base rows actually written, 0 when the content hash didn't change
+     */
+    @Transactional
+    public int writeLeetCode(Users user, UserKnowledgeBase entry, Map<String, Object> leetcodeStats) {
+        return timed("leetcode", () -> {
+            updateUserInfo(user, StatsColumn.LEETCODE, leetcodeStats);
+            return knowledgeBaseRepository.upsertAll(List.of(entry));
+        });
+    }
+
+    /**
+     * @param entry resume row to save, {@code null} when its content hash didn't change
+     */
+    @Transactional
+    public void writeResume(Users user, UserKnowledgeBase entry, Map<String, Object> resumeSummary) {
+        timed("resume", () -> {
+            updateUserInfo(user, StatsColumn.RESUME, resumeSummary);
+            if (entry != null) {
+                knowledgeBaseRepository.save(entry);
+            }
+            return null;
+        });
+    }
+
+    // per-column upsert: the sources of a full ingestion write concurrently, a read-modify-write
+    // of the whole row would put back stale values for the other columns
+    private void updateUserInfo(Users user, StatsColumn column, Map<String, Object> stats) {
+        userInfoRepository.upsertStats(user.getId(), column, stats, Instant.now());
+    }
+
+    private <T> T timed(String source, Supplier<T> write) {
+        return Timer.builder("ingestion.db.write")
+                .description("Time spent inside the ingestion write transaction")
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(write);
+    }
+}
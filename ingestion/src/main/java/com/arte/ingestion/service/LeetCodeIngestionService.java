@@ -2,20 +2,19 @@ package com.arte.ingestion.service;
 
 import com.arte.ingestion.client.LeetCodeGraphQLClient;
 import com.arte.ingestion.dto.leetcode.LeetCodeStats;
-import com.arte.ingestion.entity.UserInfo;
+import com.arte.ingestion.dto.leetcode.LeetCodeUserDataResponse;
 import com.arte.ingestion.entity.UserKnowledgeBase;
 import com.arte.ingestion.entity.Users;
-import com.arte.ingestion.repository.UserInfoRepository;
-import com.arte.ingestion.repository.UserKnowledgeBaseRepository;
 import com.arte.ingestion.repository.UserRepository;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.arte.ingestion.util.ContentHasher;
+import com.arte.ingestion.util.SingleFlight;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Instant;
+import java.time.Duration;
 import java.util.*;
 
 @Service 
@@ -28,49 +27,56 @@ public class LeetCodeIngestionService {
 
     private final LeetCodeGraphQLClient leetCodeClient;
     private final UserRepository userRepository;
-    private final UserInfoRepository userInfoRepository;
-    private final UserKnowledgeBaseRepository knowledgeBaseRepository;
+    private final IngestionWriteService ingestionWriteService;
     private final ObjectMapper objectMapper;
+    private final IngestionLeaseLock ingestionLeaseLock;
+
+    @Value("${ingestion.single-flight.result-ttl-seconds:10}")
+    private long singleFlightTtlSeconds;
+
+    private final SingleFlight<FlightKey, IngestionResult> inFlight = new SingleFlight<>();
 
     /**
      * Ingests leetcode data for a user's profile, submissions, contest ranking and triggers embedding generation through gRPC
+     * LeetCode calls run with no transaction open, only the final write is transactional.
      *
      * @param userId           user's UUID
      * @param leetcodeUsername user's LeetCode username
      * @return IngestionResult with details of what was ingested
      */
-    @Transactional
     public IngestionResult ingestLeetCodeData(UUID userId, String leetcodeUsername) {
+        return ingestLeetCodeData(userId, leetcodeUsername, IngestionProgressListener.NOOP);
+    }
+
+    /**
+     * Same as {@link #ingestLeetCodeData(UUID, String)}, reporting LEETCODE_SECTION_DONE for every section that came back.
+     * Identical calls made while one is running share its result (joiners get no progress events).
+     */
+    public IngestionResult ingestLeetCodeData(UUID userId, String leetcodeUsername, IngestionProgressListener listener) {
+        return inFlight.execute(new FlightKey(userId, leetcodeUsername), Duration.ofSeconds(singleFlightTtlSeconds),
+                () -> ingestionLeaseLock.withLock(userId, SOURCE_TYPE, () -> ingest(userId, leetcodeUsername, listener)));
+    }
+
+    private IngestionResult ingest(UUID userId, String leetcodeUsername, IngestionProgressListener listener) {
         log.info("Starting LeetCode ingestion for user: {} (leetcode: {})", userId, leetcodeUsername);
 
         Users user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
 
-        // 1. fetch all the LeetCode data
-        JsonNode profileData = leetCodeClient.fetchUserProfile(leetcodeUsername);
-        JsonNode submissionsData = leetCodeClient.fetchRecentSubmissions(leetcodeUsername, RECENT_SUBMISSIONS_LIMIT);
-        JsonNode contestData = leetCodeClient.fetchContestRanking(leetcodeUsername);
-        JsonNode languageData = leetCodeClient.fetchLanguageStats(leetcodeUsername);
+        // 1. fetch all the LeetCode data in one request
+        LeetCodeUserDataResponse userData = leetCodeClient.fetchUserData(leetcodeUsername, RECENT_SUBMISSIONS_LIMIT);
 
-        if (profileData == null || !profileData.has("data") || profileData.get("data").get("matchedUser").isNull()) {
+        if (userData == null || userData.data() == null || userData.data().profile() == null) {
             log.warn("No LeetCode profile found for user: {}", leetcodeUsername);
             return new IngestionResult(false, "LeetCode user not found: " + leetcodeUsername, 0);
         }
 
-        // 2. parse and build stats
-        LeetCodeStats stats = buildLeetCodeStats(profileData, submissionsData, contestData, languageData);
-
-        // 3. update user_info with the stats
-        UserInfo userInfo = userInfoRepository.findById(userId)
-                .orElse(UserInfo.builder()
-                        .user(user)
-                        .build());
+        reportSections(userData.data(), listener);
 
-        userInfo.setLeetcodeStats(objectMapper.convertValue(stats, Map.class));
-        userInfo.setLastIngestedAt(Instant.now());
-        userInfoRepository.save(userInfo);
+        // 2. parse and build stats
+        LeetCodeStats stats = buildLeetCodeStats(userData.data());
 
-        // 4. create knowledge base entry for leetcode profile
+        // 3. create knowledge base entry for leetcode profile
         String content = buildLeetCodeContent(stats);
         Map<String, Object> metadata = Map.of(
                 "username", leetcodeUsername,
@@ -80,21 +86,20 @@ public class LeetCodeIngestionService {
         );
 
         String sourceUrl = "https://leetcode.com/u/" + leetcodeUsername;
-        UserKnowledgeBase entry = knowledgeBaseRepository
-                .findByUserIdAndSourceTypeAndSourceUrl(userId, SOURCE_TYPE, sourceUrl)
-                .map(existing -> {
-                    existing.setContent(content);
-                    existing.setMetadata(metadata);
-                    return existing;
-                })
-                .orElse(UserKnowledgeBase.builder()
-                        .content(content)
-                        .sourceType(SOURCE_TYPE)
-                        .sourceUrl(sourceUrl)
-                        .metadata(metadata)
-                        .build());
-
-        knowledgeBaseRepository.save(entry);
+        // unchanged content_hash makes the upsert a no-op on the database side
+        UserKnowledgeBase entry = UserKnowledgeBase.builder()
+                .user(user)
+                .content(content)
+                .sourceType(SOURCE_TYPE)
+                .sourceUrl(sourceUrl)
+                .metadata(metadata)
+                .contentHash(ContentHasher.fingerprint(content, metadata))
+                .build();
+
+        // 4. short write-only transaction: user_info stats + knowledge base upsert
+        if (ingestionWriteService.writeLeetCode(user, entry, objectMapper.convertValue(stats, Map.class)) == 0) {
+            log.debug("LeetCode content hash unchanged, knowledge base untouched for user {}", userId);
+        }
 
         log.info("LeetCode ingestion completed for user {}", userId);
 
@@ -105,31 +110,45 @@ public class LeetCodeIngestionService {
         );
     }
 
-    private LeetCodeStats buildLeetCodeStats(JsonNode profile, JsonNode submissions, JsonNode contest, JsonNode language) {
+    private void reportSections(LeetCodeUserDataResponse.Data data, IngestionProgressListener listener) {
+        Map<String, Object> sections = new LinkedHashMap<>();
+        sections.put("profile", data.profile());
+        sections.put("languages", data.languages());
+        sections.put("recent submissions", data.recentSubmissions());
+        sections.put("contest ranking", data.contestRanking());
+        sections.forEach((section, value) -> {
+            if (value != null) {
+                listener.onProgress(SOURCE_TYPE, IngestionProgressListener.Stage.LEETCODE_SECTION_DONE, section);
+            }
+        });
+    }
+
+    private LeetCodeStats buildLeetCodeStats(LeetCodeUserDataResponse.Data data) {
         LeetCodeStats.LeetCodeStatsBuilder builder = LeetCodeStats.builder();
 
         // parse profile data
-        JsonNode matchedUser = profile.path("data").path("matchedUser");
-        builder.username(matchedUser.path("username").asText());
-
-        JsonNode profileNode = matchedUser.path("profile");
-        builder.ranking(profileNode.path("ranking").asInt(0));
-        builder.reputation(profileNode.path("reputation").asInt(0));
-        builder.starRating(profileNode.path("starRating").asDouble(0));
-        builder.aboutMe(profileNode.path("aboutMe").asText(""));
+        LeetCodeUserDataResponse.MatchedUser matchedUser = data.profile();
+        builder.username(matchedUser.username());
+
+        LeetCodeUserDataResponse.Profile profile = matchedUser.profile();
+        if (profile != null) {
+            builder.ranking(orZero(profile.ranking()));
+            builder.reputation(orZero(profile.reputation()));
+            builder.starRating(profile.starRating() != null ? profile.starRating() : 0);
+            builder.aboutMe(profile.aboutMe() != null ? profile.aboutMe() : "");
+        }
 
         // parse problem stats
-        JsonNode submitStats = matchedUser.path("submitStatsGlobal").path("acSubmissionNum");
-        if (submitStats.isArray()) {
+        if (matchedUser.submitStatsGlobal() != null && matchedUser.submitStatsGlobal().acSubmissionNum() != null) {
             int total = 0, easy = 0, medium = 0, hard = 0;
-            for (JsonNode stat : submitStats) {
-                String difficulty = stat.path("difficulty").asText();
-                int count = stat.path("count").asInt(0);
-                switch (difficulty) {
+            for (LeetCodeUserDataResponse.DifficultyCount stat : matchedUser.submitStatsGlobal().acSubmissionNum()) {
+                int count = orZero(stat.count());
+                switch (String.valueOf(stat.difficulty())) {
                     case "All" -> total = count;
                     case "Easy" -> easy = count;
                     case "Medium" -> medium = count;
                     case "Hard" -> hard = count;
+                    default -> { }
                 }
             }
             builder.totalSolved(total);
@@ -139,66 +158,53 @@ public class LeetCodeIngestionService {
         }
 
         // parse badges
-        JsonNode badges = matchedUser.path("badges");
-        if (badges.isArray()) {
-            List<String> badgeNames = new ArrayList<>();
-            for (JsonNode badge : badges) {
-                badgeNames.add(badge.path("name").asText());
-            }
-            builder.badges(badgeNames);
+        if (matchedUser.badges() != null) {
+            builder.badges(matchedUser.badges().stream()
+                    .map(LeetCodeUserDataResponse.Badge::name)
+                    .toList());
         }
 
-        JsonNode activeBadge = matchedUser.path("activeBadge");
-        if (!activeBadge.isNull() && activeBadge.has("name")) {
-            builder.activeBadge(activeBadge.path("name").asText());
+        if (matchedUser.activeBadge() != null && matchedUser.activeBadge().name() != null) {
+            builder.activeBadge(matchedUser.activeBadge().name());
         }
 
         // parse contest data
-        if (contest != null && contest.has("data")) {
-            JsonNode contestRanking = contest.path("data").path("userContestRanking");
-            if (!contestRanking.isNull()) {
-                builder.contestsAttended(contestRanking.path("attendedContestsCount").asInt(0));
-                builder.contestRating(contestRanking.path("rating").asDouble(0));
-                builder.globalRanking(contestRanking.path("globalRanking").asInt(0));
-                builder.topPercentage(contestRanking.path("topPercentage").asDouble(0));
-            }
+        LeetCodeUserDataResponse.ContestRanking contestRanking = data.contestRanking();
+        if (contestRanking != null) {
+            builder.contestsAttended(orZero(contestRanking.attendedContestsCount()));
+            builder.contestRating(contestRanking.rating() != null ? contestRanking.rating() : 0);
+            builder.globalRanking(orZero(contestRanking.globalRanking()));
+            builder.topPercentage(contestRanking.topPercentage() != null ? contestRanking.topPercentage() : 0);
         }
 
         // parse language stats
-        if (language != null && language.has("data")) {
-            JsonNode langStats = language.path("data").path("matchedUser").path("languageProblemCount");
-            if (langStats.isArray()) {
-                Map<String, Integer> languageMap = new HashMap<>();
-                for (JsonNode lang : langStats) {
-                    languageMap.put(
-                            lang.path("languageName").asText(),
-                            lang.path("problemsSolved").asInt(0)
-                    );
-                }
-                builder.languageStats(languageMap);
+        if (data.languages() != null && data.languages().languageProblemCount() != null) {
+            Map<String, Integer> languageMap = new HashMap<>();
+            for (LeetCodeUserDataResponse.LanguageCount lang : data.languages().languageProblemCount()) {
+                languageMap.put(lang.languageName(), orZero(lang.problemsSolved()));
             }
+            builder.languageStats(languageMap);
         }
 
         // parse recent submissions
-        if (submissions != null && submissions.has("data")) {
-            JsonNode submissionList = submissions.path("data").path("recentAcSubmissionList");
-            if (submissionList.isArray()) {
-                List<LeetCodeStats.RecentSubmission> recentSubs = new ArrayList<>();
-                for (JsonNode sub : submissionList) {
-                    recentSubs.add(LeetCodeStats.RecentSubmission.builder()
-                            .title(sub.path("title").asText())
-                            .titleSlug(sub.path("titleSlug").asText())
-                            .language(sub.path("lang").asText())
-                            .timestamp(sub.path("timestamp").asLong())
-                            .build());
-                }
-                builder.recentSubmissions(recentSubs);
-            }
+        if (data.recentSubmissions() != null) {
+            builder.recentSubmissions(data.recentSubmissions().stream()
+                    .map(sub -> LeetCodeStats.RecentSubmission.builder()
+                            .title(sub.title())
+                            .titleSlug(sub.titleSlug())
+                            .language(sub.lang())
+                            .timestamp(sub.timestamp())
+                            .build())
+                    .toList());
         }
 
         return builder.build();
     }
 
+    private static int orZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
     private String buildLeetCodeContent(LeetCodeStats stats) {
         StringBuilder content = new StringBuilder();
         content.append("LeetCode Profile: ").append(stats.getUsername()).append("\n\n");
@@ -247,4 +253,6 @@ public class LeetCodeIngestionService {
             String message,
             int problemsSolved
     ) {}
+
+    private record FlightKey(UUID userId, String leetcodeUsername) {}
 }
@@ -0,0 +1,189 @@
+package com.arte.ingestion.service;
+
+import com.arte.ingestion.repository.LinkedInJobsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Pre-warms {@code linkedin_jobs} for a list of job ids. Ids already stored are reported straight away,
+ * the rest are scraped through {@link LinkedInJobIngestionService} (so the content and miss caches apply)
+ * and reported one by one as they finish.
+ * <p>
+ * The worker slots and the politeness delay between fetch starts are shared by all batches on this instance:
+ * LinkedIn throttles per IP, not per batch. Only requests that really go to LinkedIn wait for the delay,
+ * cache hits, known misses and malformed ids are answered right away. Metric: {@code ingestion.linkedin.batch.jobs} tagged by status.
+ */
+@Service
+@Slf4j
+public class LinkedInJobBatchScraper {
+
+    public enum Status { EXISTING, SCRAPED, NOT_FOUND, FAILED }
+
+    public record JobResult(String jobId, Status status, String message, int completed, int total) {}
+
+    public record BatchSummary(int total, int existing, int scraped, int notFound, int failed) {}
+
+    private final LinkedInJobsRepository linkedInJobsRepository;
+    private final LinkedInJobIngestionService linkedInJobIngestionService;
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore workers;
+    private final long delayNanos;
+
+    @Value("${ingestion.linkedin.batch.max-jobs:100}")
+    private int maxJobs;
+
+    // next time a fetch may start, guarded by this
+    private long nextStartNanos = System.nanoTime();
+
+    public LinkedInJobBatchScraper(LinkedInJobsRepository linkedInJobsRepository,
+                                   LinkedInJobIngestionService linkedInJobIngestionService,
+                                   @Qualifier("ingestionExecutor") Executor executor,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${ingestion.linkedin.batch.concurrency:2}") int concurrency,
+                                   @Value("${ingestion.linkedin.batch.delay-ms:1000}") long delayMs) {
+        this.linkedInJobsRepository = linkedInJobsRepository;
+        this.linkedInJobIngestionService = linkedInJobIngestionService;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.workers = new Semaphore(Math.max(concurrency, 1));
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(delayMs);
+    }
+
+    /**
+     * Blocks until every job is reported. {@code onResult} is called from the worker threads, one call at a time.
+     * Once {@code cancelled} turns true the jobs that haven't started are skipped.
+     *
+     * @throws IllegalArgumentException when there are no ids or more than {@code ingestion.linkedin.batch.max-jobs}
+     */
+    public BatchSummary scrape(UUID userId, List<String> jobIds, BooleanSupplier cancelled, Consumer<JobResult> onResult) {
+        Set<String> unique = new LinkedHashSet<>();
+        for (String jobId : jobIds) {
+            if (jobId != null && !jobId.isBlank()) {
+                unique.add(jobId.trim());
+            }
+        }
+        if (unique.isEmpty()) {
+            throw new IllegalArgumentException("No job ids given");
+        }
+        if (unique.size() > maxJobs) {
+            throw new IllegalArgumentException("Too many job ids: " + unique.size() + " (max " + maxJobs + ")");
+        }
+
+        log.info("Batch scrape of {} linkedin jobs for user {}", unique.size(), userId);
+        Progress progress = new Progress(unique.size(), onResult);
+
+        Set<String> existing = new HashSet<>(linkedInJobsRepository.findExistingJobIds(unique));
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (String jobId : unique) {
+            if (existing.contains(jobId)) {
+                progress.report(jobId, Status.EXISTING, "");
+                continue;
+            }
+            pending.add(CompletableFuture.runAsync(() -> scrapeOne(userId, jobId, cancelled, progress), executor));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+
+        BatchSummary summary = progress.summary();
+        log.info("Batch scrape for user {} done: {}", userId, summary);
+        return summary;
+    }
+
+    private void scrapeOne(UUID userId, String jobId, BooleanSupplier cancelled, Progress progress) {
+        if (cancelled.getAsBoolean()) {
+            progress.report(jobId, Status.FAILED, "cancelled");
+            return;
+        }
+        try {
+            workers.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.report(jobId, Status.FAILED, "interrupted");
+            return;
+        }
+        try {
+            if (cancelled.getAsBoolean()) {
+                progress.report(jobId, Status.FAILED, "cancelled");
+                return;
+            }
+            var result = linkedInJobIngestionService.ingestLinkedInJob(userId, jobId, this::awaitTurn);
+            if (result.success()) {
+                progress.report(jobId, Status.SCRAPED, "");
+            } else {
+                progress.report(jobId, Status.NOT_FOUND, result.message());
+            }
+        } catch (InterruptedIOException e) {
+            progress.report(jobId, Status.FAILED, "interrupted");
+        } catch (Exception e) {
+            log.warn("Batch scrape of linkedin job {} failed: {}", jobId, e.getMessage());
+            progress.report(jobId, Status.FAILED, String.valueOf(e.getMessage()));
+        } finally {
+            workers.release();
+        }
+    }
+
+    // spaces fetch starts by the politeness delay across all workers
+    private void awaitTurn() throws InterruptedIOException {
+        long startAt;
+        synchronized (this) {
+            long now = System.nanoTime();
+            startAt = Math.max(now, nextStartNanos);
+            nextStartNanos = startAt + delayNanos;
+        }
+        long waitNanos = startAt - System.nanoTime();
+        if (waitNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting to fetch a linkedin job");
+        }
+    }
+
+    private final class Progress {
+        private final int total;
+        private final Consumer<JobResult> onResult;
+        private final int[] counts = new int[Status.values().length];
+        private int completed;
+
+        Progress(int total, Consumer<JobResult> onResult) {
+            this.total = total;
+            this.onResult = onResult;
+        }
+
+        synchronized void report(String jobId, Status status, String message) {
+            counts[status.ordinal()]++;
+            completed++;
+            Counter.builder("ingestion.linkedin.batch.jobs")
+                    .tag("status", status.name().toLowerCase())
+                    .register(meterRegistry)
+                    .increment();
+            onResult.accept(new JobResult(jobId, status, message, completed, total));
+        }
+
+        synchronized BatchSummary summary() {
+            return new BatchSummary(total, counts[Status.EXISTING.ordinal()], counts[Status.SCRAPED.ordinal()],
+                    counts[Status.NOT_FOUND.ordinal()], counts[Status.FAILED.ordinal()]);
+        }
+    }
+}
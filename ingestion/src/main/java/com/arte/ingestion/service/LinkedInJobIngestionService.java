@@ -1,87 +1,155 @@
 package com.arte.ingestion.service;
 
 
+import com.arte.ingestion.client.LinkedInJobClient;
 import com.arte.ingestion.entity.LinkedInJobs;
 import com.arte.ingestion.repository.LinkedInJobsRepository;
+import com.arte.ingestion.util.BoundedCache;
 import com.vladsch.flexmark.html2md.converter.FlexmarkHtmlConverter;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
+import org.jsoup.HttpStatusException;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.UUID;
 
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class LinkedInJobIngestionService  {
 
+    private static final String INVALID_ID = "invalid job id, expected 10 digits";
+    private static final String NO_CONTENT = "job description element missing";
+
     private final LinkedInJobsRepository linkedInJobsRepository;
+    private final LinkedInJobClient linkedInJobClient;
+    // jobId -> raw content, popular postings are read by many users (metrics: ingestion.cache.* cache=linkedin-jobs)
+    private final BoundedCache<String, String> jobContentCache;
+    private final LinkedInJobMissCache missCache;
+
+    public LinkedInJobIngestionService(LinkedInJobsRepository linkedInJobsRepository,
+                                       LinkedInJobClient linkedInJobClient,
+                                       LinkedInJobMissCache missCache,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${ingestion.linkedin.cache.max-size:64MB}") DataSize cacheMaxSize,
+                                       @Value("${ingestion.linkedin.cache.ttl-minutes:60}") long cacheTtlMinutes) {
+        this.linkedInJobsRepository = linkedInJobsRepository;
+        this.linkedInJobClient = linkedInJobClient;
+        this.missCache = missCache;
+        this.jobContentCache = new BoundedCache<>("linkedin-jobs", cacheMaxSize.toBytes(),
+                Duration.ofMinutes(cacheTtlMinutes), content -> content.getBytes(StandardCharsets.UTF_8).length,
+                meterRegistry);
+    }
 
     /**
      * Ingests LinkedIn jobs from the job id <a href="https://www.linkedin.com/jobs/view/">https://www.linkedin.com/jobs/view/{jobId}</a>
      * Scrapes the HTML class 'show-more-less-html__markup--clamp-after-5' with jsoup
-     * and formats with flexmark.
+     * and formats with flexmark. Not transactional: the scrape must not hold a JDBC connection,
+     * the lookup and the insert each run in their own short repository transaction.
+     * Known jobs are served from an in-process cache bounded by content size, before the repository,
+     * and ids that recently had no content are answered from {@link LinkedInJobMissCache} without scraping.
      * @param userId user's UUID
      * @param jobId job's id
      * @return LinkedInIngestionResult with success and message
      */
-    @Transactional
     public LinkedInIngestionResult ingestLinkedInJob(UUID userId,  String jobId) throws IOException {
+        return ingestLinkedInJob(userId, jobId, () -> {});
+    }
+
+    /**
+     * Same as {@link #ingestLinkedInJob(UUID, String)}, {@code beforeFetch} runs right before LinkedIn is
+     * actually asked for the page, so callers can pace real scrapes without slowing down cache and miss hits.
+     */
+    public LinkedInIngestionResult ingestLinkedInJob(UUID userId, String jobId, BeforeFetch beforeFetch) throws IOException {
         log.info("Starting Job ingestion for user: {}, on: {}", userId, jobId);
 
+        // cheaper than any cache, and not worth remembering
+        if (jobId == null || jobId.length() != 10 || !jobId.chars().allMatch(Character::isDigit)) {
+            log.warn("Invalid JobId format (expected 10 digits).");
+            return notFound(jobId, INVALID_ID);
+        }
+
+        Optional<String> cached = jobContentCache.get(jobId);
+        if (cached.isPresent()) {
+            return new LinkedInIngestionResult(true, cached.get());
+        }
+
+        // known misses never made it to linkedin_jobs, no point asking the table
+        Optional<String> knownMiss = missCache.find(jobId);
+        if (knownMiss.isPresent()) {
+            return notFound(jobId, knownMiss.get());
+        }
+
         Optional<LinkedInJobs> existing = linkedInJobsRepository.findByJobId(jobId);
 
         if(existing.isPresent()) {
             LinkedInJobs job = existing.get();
+            jobContentCache.put(jobId, job.getRawContent());
             return new LinkedInIngestionResult(true, job.getRawContent());
         }
 
-        String content = jobContent(jobId);
+        beforeFetch.await();
+        Scrape scrape = jobContent(jobId);
 
-        if (content == null) {
-            log.warn("Job or job content not found for the ID: {}", jobId);
-            return new LinkedInIngestionResult(false, "Job or Job content not found for: {}" + jobId);
+        if (scrape.content() == null) {
+            missCache.record(jobId, scrape.missReason());
+            return notFound(jobId, scrape.missReason());
         }
+        String content = scrape.content();
 
         LinkedInJobs entry = LinkedInJobs.builder()
                 .jobId(jobId)
                 .rawContent(content)
                 .build();
         linkedInJobsRepository.save(entry);
+        jobContentCache.put(jobId, content);
 
         return new LinkedInIngestionResult(true, content);
     }
 
-    private String jobContent(String jobId) throws IOException {
-        if (jobId.length() != 10 || !jobId.chars().allMatch(Character::isDigit)) {
-            log.warn("Invalid JobId format (expected 10 digits).");
-            return null;
-        }
+    @FunctionalInterface
+    public interface BeforeFetch {
+        void await() throws IOException;
+    }
 
-        Document doc = Jsoup.connect("https://www.linkedin.com/jobs/view/" + jobId)
-                .userAgent("Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36")
-                .get();
+    private LinkedInIngestionResult notFound(String jobId, String reason) {
+        log.warn("Job or job content not found for the ID: {} ({})", jobId, reason);
+        return new LinkedInIngestionResult(false, "Job or Job content not found for: " + jobId + " (" + reason + ")");
+    }
+
+    private Scrape jobContent(String jobId) throws IOException {
+        Document doc;
+        try {
+            doc = linkedInJobClient.fetchJobPage(jobId);
+        } catch (HttpStatusException e) {
+            // removed or never existing postings, anything else is an upstream problem
+            if (e.getStatusCode() == 404 || e.getStatusCode() == 410) {
+                return Scrape.miss("posting not found (HTTP " + e.getStatusCode() + ")");
+            }
+            throw e;
+        }
 
         Element jobDataHtml = doc.selectFirst(".show-more-less-html__markup--clamp-after-5");
 
         if (jobDataHtml == null || !jobDataHtml.hasText()) {
             log.warn("Job data element not found.");
-            return null;
+            return Scrape.miss(NO_CONTENT);
         }
 
         // clean HTML before conversion
         cleanHtmlForMarkdown(jobDataHtml);
 
-        return FlexmarkHtmlConverter.builder()
+        return new Scrape(FlexmarkHtmlConverter.builder()
                 .build()
-                .convert(jobDataHtml.html());
+                .convert(jobDataHtml.html()), null);
     }
 
     private void cleanHtmlForMarkdown(Element element) {
@@ -101,6 +169,12 @@ public class LinkedInJobIngestionService  {
         element.select("br + br").remove();
     }
 
+    private record Scrape(String content, String missReason) {
+        static Scrape miss(String reason) {
+            return new Scrape(null, reason);
+        }
+    }
+
     public record LinkedInIngestionResult(
             boolean success,
             String message
@@ -0,0 +1,105 @@
+package com.arte.ingestion.service;
+
+import com.arte.ingestion.util.BoundedCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Remembers LinkedIn job ids whose scrape came back empty (removed posting, page without job content)
+ * together with the reason, so asking again answers from memory instead of hitting LinkedIn.
+ * Entries expire after a short TTL since postings can come back or the page layout can change.
+ * <p>
+ * With {@code ingestion.linkedin.negative-cache.persist} misses also go to {@code linkedin_job_misses},
+ * so the other replicas and restarts see them. Metrics: {@code ingestion.cache.*} with {@code cache=linkedin-job-misses}.
+ */
+@Component
+@Slf4j
+public class LinkedInJobMissCache {
+
+    private static final String FIND_SQL =
+            "SELECT reason FROM linkedin_job_misses WHERE job_id = ? AND expires_at > NOW()";
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO linkedin_job_misses (job_id, reason, created_at, expires_at)
+            VALUES (?, ?, NOW(), NOW() + CAST(? AS INTERVAL))
+            ON CONFLICT (job_id) DO UPDATE
+            SET reason = EXCLUDED.reason, created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at
+            """;
+
+    private static final String PURGE_SQL = "DELETE FROM linkedin_job_misses WHERE expires_at < NOW()";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BoundedCache<String, String> misses;
+    private final Duration ttl;
+    private final boolean persist;
+
+    public LinkedInJobMissCache(JdbcTemplate jdbcTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${ingestion.linkedin.negative-cache.max-entries:10000}") int maxEntries,
+                                @Value("${ingestion.linkedin.negative-cache.ttl-minutes:15}") long ttlMinutes,
+                                @Value("${ingestion.linkedin.negative-cache.persist:false}") boolean persist) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.persist = persist;
+        this.misses = new BoundedCache<>("linkedin-job-misses", maxEntries, ttl, reason -> 1, meterRegistry);
+    }
+
+    /**
+     * @return why the job had no content, when that was found out within the TTL
+     */
+    public Optional<String> find(String jobId) {
+        Optional<String> reason = misses.get(jobId);
+        if (reason.isPresent() || !persist) {
+            return reason;
+        }
+
+        try {
+            List<String> stored = jdbcTemplate.queryForList(FIND_SQL, String.class, jobId);
+            if (stored.isEmpty()) {
+                return Optional.empty();
+            }
+            // the table row may be older than ttl allows here, close enough for a short lived miss
+            misses.put(jobId, stored.getFirst());
+            return Optional.of(stored.getFirst());
+        } catch (RuntimeException e) {
+            log.warn("Could not read linkedin job misses: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void record(String jobId, String reason) {
+        misses.put(jobId, reason);
+        if (!persist) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(UPSERT_SQL, jobId, reason, ttl.toMillis() + " milliseconds");
+        } catch (RuntimeException e) {
+            // still cached in memory
+            log.warn("Could not store linkedin job miss {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ingestion.linkedin.negative-cache.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        if (!persist) {
+            return;
+        }
+        try {
+            int purged = jdbcTemplate.update(PURGE_SQL);
+            if (purged > 0) {
+                log.debug("Purged {} expired linkedin job misses", purged);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not purge linkedin job misses: {}", e.getMessage());
+        }
+    }
+}
@@ -1,25 +1,28 @@
 package com.arte.ingestion.service;
 
 import com.arte.ingestion.dto.resume.ResumeSummary;
-import com.arte.ingestion.entity.UserInfo;
 import com.arte.ingestion.entity.UserKnowledgeBase;
 import com.arte.ingestion.entity.Users;
-import com.arte.ingestion.repository.UserInfoRepository;
 import com.arte.ingestion.repository.UserKnowledgeBaseRepository;
 import com.arte.ingestion.repository.UserRepository;
+import com.arte.ingestion.util.ContentHasher;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile; 
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
@@ -38,32 +41,91 @@ public class ResumeProcessingService {
     @Value("${ingestion.resume.word-cap:" + DEFAULT_WORD_CAP + "}")
     private int wordCap;
 
+    @Value("${ingestion.resume.max-upload-size:10MB}")
+    private DataSize maxUploadSize;
+
     private final UserRepository userRepository;
-    private final UserInfoRepository userInfoRepository;
     private final UserKnowledgeBaseRepository knowledgeBaseRepository;
+    private final IngestionWriteService ingestionWriteService;
     private final ObjectMapper objectMapper;
+    private final IngestionLeaseLock ingestionLeaseLock;
 
     /**
      * processes a resume PDF, extracts text with word cap.
+     * PDF parsing runs with no transaction open, only the final write is transactional.
      *
      * @param userId The user's UUID
      * @param file   The uploaded PDF file
      * @return ProcessingResult with details of what was processed
      */
-    @Transactional
     public ProcessingResult processResume(UUID userId, MultipartFile file) throws IOException {
+        return processResume(userId, file, IngestionProgressListener.NOOP);
+    }
+
+    /**
+     * Same as {@link #processResume(UUID, MultipartFile)}, reporting RESUME_PARSED once the text is extracted.
+     */
+    public ProcessingResult processResume(UUID userId, MultipartFile file, IngestionProgressListener listener) throws IOException {
         log.info("Starting resume processing for user: {}, file: {}", userId, file.getOriginalFilename());
 
         Users user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
 
         // 1. validate file
-        if (!isPdfFile(file)) {
+        if (!isPdfFile(file.getContentType(), file.getOriginalFilename())) {
             return new ProcessingResult(false, "Invalid file type. Only PDF files are supported.", 0);
         }
 
+        // the upload is read once, hashed on the way into the PDF buffer
+        MessageDigest digest = sha256();
+        try (var in = new DigestInputStream(file.getInputStream(), digest);
+             RandomAccessRead pdf = new RandomAccessReadBuffer(in)) {
+            return process(user, file.getOriginalFilename(), pdf, toFileHash(digest.digest()), listener);
+        }
+    }
+
+    /**
+     * Processes a resume that was already spooled to disk by a chunked upload.
+     * PDFBox pages the file in as it parses, so the whole document is never held in memory.
+     *
+     * @param pdfFile  spooled upload, the caller owns (and deletes) it
+     * @param fileHash {@link #toFileHash} of the digest computed while the chunks were written
+     */
+    public ProcessingResult processResume(UUID userId, String fileName, Path pdfFile, String fileHash,
+                                          IngestionProgressListener listener) throws IOException {
+        log.info("Starting resume processing for user: {}, file: {} (streamed upload)", userId, fileName);
+
+        Users user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
+
+        if (!isPdfFile(null, fileName)) {
+            return new ProcessingResult(false, "Invalid file type. Only PDF files are supported.", 0);
+        }
+
+        try (RandomAccessRead pdf = new RandomAccessReadBufferedFile(pdfFile)) {
+            return process(user, fileName, pdf, fileHash, listener);
+        }
+    }
+
+    /**
+     * @return upper bound for a chunked upload, anything larger is rejected before it hits the disk
+     */
+    public long maxUploadBytes() {
+        return maxUploadSize.toBytes();
+    }
+
+    private ProcessingResult process(Users user, String fileName, RandomAccessRead pdf, String fileHash,
+                                     IngestionProgressListener listener) {
+        return ingestionLeaseLock.withLock(user.getId(), SOURCE_TYPE,
+                () -> parseAndWrite(user, fileName, pdf, fileHash, listener));
+    }
+
+    private ProcessingResult parseAndWrite(Users user, String fileName, RandomAccessRead pdf, String fileHash,
+                                           IngestionProgressListener listener) {
+        UUID userId = user.getId();
+
         // 2. extract text from PDF
-        String rawText = extractTextFromPdf(file.getInputStream());
+        String rawText = extractTextFromPdf(pdf);
         if (rawText == null || rawText.isBlank()) {
             return new ProcessingResult(false, "Could not extract text from PDF", 0);
         }
@@ -74,13 +136,11 @@ public class ResumeProcessingService {
         int wordCount = countWords(cappedText);
 
         log.info("Extracted {} words from resume (capped at {})", wordCount, wordCap);
+        listener.onProgress(SOURCE_TYPE, IngestionProgressListener.Stage.RESUME_PARSED, wordCount + " words");
 
-        // 4. compute file hash for deduplication
-        String fileHash = computeHash(file.getBytes());
-
-        // 5. build resume summary
+        // 4. build resume summary, the file hash was computed while reading the upload
         ResumeSummary summary = ResumeSummary.builder()
-                .fileName(file.getOriginalFilename())
+                .fileName(fileName)
                 .fileHash(fileHash)
                 .wordCount(wordCount)
                 .processedAt(Instant.now())
@@ -91,56 +151,61 @@ public class ResumeProcessingService {
                 .summary(extractSummary(cappedText))
                 .build();
 
-        // 6. update user_info with resume summary
-        UserInfo userInfo = userInfoRepository.findById(userId)
-                .orElse(UserInfo.builder()
-                        .user(user)
-                        .build());
-
-        userInfo.setResumeSummary(objectMapper.convertValue(summary, Map.class));
-        userInfo.setLastIngestedAt(Instant.now());
-        userInfoRepository.save(userInfo);
-
-        // 7. create knowledge base entry
+        // 5. create knowledge base entry
         // will add when we use storge bucket
 //        String sourceUrl = "resume://" + userId + "/" + fileHash;
         Map<String, Object> metadata = Map.of(
-                "fileName", Objects.requireNonNull(file.getOriginalFilename()),
+                "fileName", Objects.requireNonNull(fileName),
                 "fileHash", fileHash,
                 "wordCount", wordCount,
                 "processedAt", Instant.now().toString()
         );
 
-        UserKnowledgeBase entry = knowledgeBaseRepository
-                .findByUserIdAndSourceType(userId, SOURCE_TYPE)
-                .map(existing -> {
-                    existing.setContent(cappedText);
-                    existing.setMetadata(metadata);
-                    return existing;
-                })
-                .orElse(UserKnowledgeBase.builder()
-                        .content(cappedText)
-                        .sourceType(SOURCE_TYPE)
-                        .sourceUrl(null)
-                        .metadata(metadata)
-                        .build());
-
-        knowledgeBaseRepository.save(entry);
+        // processedAt changes on every run, keep it out of the fingerprint
+        String contentHash = ContentHasher.fingerprint(cappedText, Map.of(
+                "fileName", fileName,
+                "fileHash", fileHash,
+                "wordCount", wordCount
+        ));
+        Optional<UserKnowledgeBase> existingEntry = knowledgeBaseRepository
+                .findByUserIdAndSourceType(userId, SOURCE_TYPE);
+
+        UserKnowledgeBase entry = null;
+        if (existingEntry.isPresent() && contentHash.equals(existingEntry.get().getContentHash())) {
+            log.debug("Resume content hash unchanged, skipping knowledge base write for user {}", userId);
+        } else {
+            entry = existingEntry
+                    .map(existing -> {
+                        existing.setContent(cappedText);
+                        existing.setMetadata(metadata);
+                        existing.setContentHash(contentHash);
+                        return existing;
+                    })
+                    .orElse(UserKnowledgeBase.builder()
+                            .user(user)
+                            .content(cappedText)
+                            .sourceType(SOURCE_TYPE)
+                            .sourceUrl(null)
+                            .metadata(metadata)
+                            .contentHash(contentHash)
+                            .build());
+        }
+
+        // 6. short write-only transaction: user_info resume summary + knowledge base entry
+        ingestionWriteService.writeResume(user, entry, objectMapper.convertValue(summary, Map.class));
 
         log.info("Resume processing completed for user {}: {} words", userId, wordCount);
 
         return new ProcessingResult(true, "Successfully processed resume", wordCount);
     }
 
-    private boolean isPdfFile(MultipartFile file) {
-        String contentType = file.getContentType();
-        String fileName = file.getOriginalFilename();
+    private boolean isPdfFile(String contentType, String fileName) {
         return "application/pdf".equals(contentType) ||
                (fileName != null && fileName.toLowerCase().endsWith(".pdf"));
     }
 
-    private String extractTextFromPdf(InputStream inputStream) {
-        try (PDDocument document = Loader.loadPDF(inputStream.readAllBytes())) {
+    private String extractTextFromPdf(RandomAccessRead pdf) {
+        try (PDDocument document = Loader.loadPDF(pdf)) {
             PDFTextStripper stripper = new PDFTextStripper();
             stripper.setSortByPosition(true);
             return stripper.getText(document);
@@ -177,22 +242,19 @@ public class ResumeProcessingService {
         return text.split("\\s+").length;
     }
 
-    private String computeHash(byte[] data) {
+    public static MessageDigest sha256() {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(data);
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-            return hexString.toString().substring(0, 16); // first 16 chars
+            return MessageDigest.getInstance("SHA-256");
         } catch (NoSuchAlgorithmException e) {
-            return UUID.randomUUID().toString().substring(0, 16);
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 
+    // first 16 hex chars of the upload's SHA-256, stored as fileHash in the resume summary
+    public static String toFileHash(byte[] digest) {
+        return HexFormat.of().formatHex(digest).substring(0, 16);
+    }
+
     // extracts skills from resume text using pattern matching
     private List<String> extractSkills(String text) {
         List<String> skills = new ArrayList<>();
@@ -0,0 +1,140 @@
+package com.arte.ingestion.service;
+
+import com.arte.ingestion.repository.IngestionJobQueue;
+import com.arte.ingestion.repository.UserInfoRepository;
+import com.arte.ingestion.repository.UserInfoRepository.StaleUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps profiles fresh in the background. Each run walks stale users page by page (keyset, stalest first),
+ * so memory is one page no matter how many users there are, and queues a FULL ingestion job for each.
+ * Within a page users who recently asked for ingestion themselves go first. Users whose last refresh job
+ * FAILED within {@code stale-after-hours} are skipped until that window passes: their last_ingested_at never
+ * moves, so without this they would come back every run and eat the budget ahead of the users behind them.
+ * <p>
+ * The budget is global because it lives in {@code ingestion_jobs}: a run only tops the queue up to
+ * {@code max-outstanding} refresh jobs, and their run_after is spread at {@code jobs-per-minute}, so the
+ * workers pick them up at a steady pace instead of as a stampede.
+ */
+@Component
+@ConditionalOnProperty(name = "ingestion.refresh.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class StaleProfileRefresher {
+
+    static final String TRIGGER = "refresh";
+
+    private final UserInfoRepository userInfoRepository;
+    private final IngestionJobQueue jobQueue;
+    private final Counter enqueued;
+
+    @Value("${ingestion.refresh.stale-after-hours:24}")
+    private long staleAfterHours;
+
+    @Value("${ingestion.refresh.page-size:200}")
+    private int pageSize;
+
+    @Value("${ingestion.refresh.max-outstanding:100}")
+    private int maxOutstanding;
+
+    @Value("${ingestion.refresh.jobs-per-minute:30}")
+    private int jobsPerMinute;
+
+    @Value("${ingestion.refresh.activity-window-days:30}")
+    private long activityWindowDays;
+
+    public StaleProfileRefresher(UserInfoRepository userInfoRepository, IngestionJobQueue jobQueue,
+                                 MeterRegistry meterRegistry) {
+        this.userInfoRepository = userInfoRepository;
+        this.jobQueue = jobQueue;
+        this.enqueued = Counter.builder("ingestion.refresh.enqueued")
+                .description("Refresh jobs queued for stale profiles")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return number of refresh jobs queued by this run
+     */
+    @Scheduled(initialDelayString = "${ingestion.refresh.initial-delay-ms:60000}",
+            fixedDelayString = "${ingestion.refresh.interval-ms:300000}")
+    public int refresh() {
+        int budget = maxOutstanding - jobQueue.outstanding(TRIGGER);
+        if (budget <= 0) {
+            log.debug("Refresh budget used up, {} refresh jobs still outstanding", maxOutstanding);
+            return 0;
+        }
+
+        Instant now = Instant.now();
+        Instant threshold = now.minus(Duration.ofHours(staleAfterHours));
+        Instant activeSince = now.minus(Duration.ofDays(activityWindowDays));
+        Duration spacing = Duration.ofMillis(60_000L / Math.max(jobsPerMinute, 1));
+
+        Instant afterIngestedAt = Instant.EPOCH;
+        UUID afterUserId = new UUID(0L, 0L);
+        int queued = 0;
+
+        while (queued < budget) {
+            List<StaleUser> page = userInfoRepository.findStaleUserInfo(
+                    threshold, afterIngestedAt, afterUserId, Limit.of(pageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+
+            for (StaleUser user : prioritize(page, activeSince, threshold)) {
+                if (queued >= budget) {
+                    break;
+                }
+                Map<String, Object> payload = new HashMap<>();
+                payload.put("trigger", TRIGGER);
+                if (user.getLeetcodeUsername() != null && !user.getLeetcodeUsername().isBlank()) {
+                    payload.put("leetcodeUsername", user.getLeetcodeUsername());
+                }
+                if (jobQueue.enqueue(user.getUserId(), "FULL", payload, spacing.multipliedBy(queued))) {
+                    queued++;
+                }
+            }
+
+            StaleUser last = page.getLast();
+            afterIngestedAt = last.getLastIngestedAt();
+            afterUserId = last.getUserId();
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+
+        if (queued > 0) {
+            enqueued.increment(queued);
+            log.info("Queued {} refresh jobs for profiles older than {}h", queued, staleAfterHours);
+        }
+        return queued;
+    }
+
+    // page arrives stalest first, recently active users jump ahead, staleness breaks ties.
+    // users whose refresh failed since the threshold are left out, the cursor still moves past them
+    private List<StaleUser> prioritize(List<StaleUser> page, Instant activeSince, Instant failedSince) {
+        List<UUID> userIds = page.stream().map(StaleUser::getUserId).toList();
+        Set<UUID> failed = jobQueue.recentlyFailed(userIds, TRIGGER, failedSince);
+        Map<UUID, Integer> activity = jobQueue.recentUserJobs(userIds, activeSince);
+        return page.stream()
+                .filter(user -> !failed.contains(user.getUserId()))
+                .sorted(Comparator.comparingInt((StaleUser user) -> activity.getOrDefault(user.getUserId(), 0))
+                        .reversed()
+                        .thenComparing(StaleUser::getLastIngestedAt))
+                .toList();
+    }
+}
@@ -0,0 +1,134 @@
+package com.arte.ingestion.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * In-process LRU cache bounded by total weight (e.g. bytes of content) rather than entry count,
+ * with a fixed TTL per entry. A single lock around an access ordered LinkedHashMap: lookups are
+ * a hash hit and a relink, cheap next to the DB round trip they save.
+ * <p>
+ * Metrics, tagged {@code cache=<name>}: {@code ingestion.cache.gets} (result hit/miss),
+ * {@code ingestion.cache.evictions} (reason size/expired), {@code ingestion.cache.size} and {@code ingestion.cache.weight}.
+ *
+ * @param <K> key, needs proper equals/hashCode
+ * @param <V> value
+ */
+public final class BoundedCache<K, V> {
+
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final ToLongFunction<V> weigher;
+    private final LongSupplier nanoTime;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long weight;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+
+    public BoundedCache(String name, long maxWeight, Duration ttl, ToLongFunction<V> weigher, MeterRegistry meterRegistry) {
+        this(name, maxWeight, ttl, weigher, meterRegistry, System::nanoTime);
+    }
+
+    BoundedCache(String name, long maxWeight, Duration ttl, ToLongFunction<V> weigher, MeterRegistry meterRegistry,
+                 LongSupplier nanoTime) {
+        if (maxWeight < 1 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Invalid cache settings for " + name + ": weight " + maxWeight + ", ttl " + ttl);
+        }
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttl.toNanos();
+        this.weigher = weigher;
+        this.nanoTime = nanoTime;
+
+        this.hits = Counter.builder("ingestion.cache.gets").tag("cache", name).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("ingestion.cache.gets").tag("cache", name).tag("result", "miss").register(meterRegistry);
+        this.sizeEvictions = Counter.builder("ingestion.cache.evictions").tag("cache", name).tag("reason", "size")
+                .register(meterRegistry);
+        this.expiredEvictions = Counter.builder("ingestion.cache.evictions").tag("cache", name).tag("reason", "expired")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.cache.size", this, BoundedCache::size).tag("cache", name).register(meterRegistry);
+        Gauge.builder("ingestion.cache.weight", this, BoundedCache::weight)
+                .description("Total weight of the cached entries")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    public Optional<V> get(K key) {
+        V value;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && nanoTime.getAsLong() - entry.expiresAtNanos >= 0) {
+                remove(key, entry);
+                expiredEvictions.increment();
+                entry = null;
+            }
+            value = entry == null ? null : entry.value;
+        }
+        (value == null ? misses : hits).increment();
+        return Optional.ofNullable(value);
+    }
+
+    /**
+     * Values heavier than the whole cache are not stored.
+     */
+    public void put(K key, V value) {
+        long entryWeight = weigher.applyAsLong(value);
+        synchronized (this) {
+            Entry<V> previous = entries.remove(key);
+            if (previous != null) {
+                weight -= previous.weight;
+            }
+            if (entryWeight > maxWeight) {
+                return;
+            }
+            entries.put(key, new Entry<>(value, entryWeight, nanoTime.getAsLong() + ttlNanos));
+            weight += entryWeight;
+            evict();
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            remove(key, entry);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+
+    // least recently used first; expired entries found on the way go too
+    private void evict() {
+        long now = nanoTime.getAsLong();
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (weight > maxWeight && it.hasNext()) {
+            Entry<V> entry = it.next().getValue();
+            it.remove();
+            weight -= entry.weight;
+            (now - entry.expiresAtNanos >= 0 ? expiredEvictions : sizeEvictions).increment();
+        }
+    }
+
+    private void remove(K key, Entry<V> entry) {
+        entries.remove(key);
+        weight -= entry.weight;
+    }
+
+    private record Entry<V>(V value, long weight, long expiresAtNanos) {}
+}
@@ -0,0 +1,37 @@
+package com.arte.ingestion.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Fingerprints a knowledge base row (content + metadata) so ingestion can tell
+ * whether anything actually changed before writing it.
+ */
+public final class ContentHasher {
+
+    private ContentHasher() {
+    }
+
+    /**
+     * @param content  the row content
+     * @param metadata the row metadata, keys are sorted so map ordering doesn't change the hash
+     * @return hex encoded SHA-256
+     */
+    public static String fingerprint(String content, Map<String, Object> metadata) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((content != null ? content : "").getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            if (metadata != null) {
+                digest.update(new TreeMap<>(metadata).toString().getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.arte.ingestion.util;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one execution. The first caller runs the work,
+ * everyone arriving while it's in flight (or within {@code resultTtl} after it finished) gets the same result.
+ * Failures are shared with the callers that were already waiting but never cached.
+ *
+ * @param <K> key, needs proper equals/hashCode
+ * @param <V> result
+ */
+public final class SingleFlight<K, V> {
+
+    // expired results are swept once the map grows past this, otherwise they go on the next lookup of their key
+    private static final int SWEEP_THRESHOLD = 1024;
+
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    public V execute(K key, Duration resultTtl, Supplier<V> work) {
+        while (true) {
+            Flight<V> fresh = new Flight<>();
+            Flight<V> existing = flights.putIfAbsent(key, fresh);
+            if (existing == null) {
+                return run(key, fresh, resultTtl, work);
+            }
+            if (existing.isExpired()) {
+                flights.remove(key, existing);
+                continue;
+            }
+            return existing.await();
+        }
+    }
+
+    /**
+     * @return whether a call for {@code key} is running or its result is still being served
+     */
+    public boolean isActive(K key) {
+        Flight<V> flight = flights.get(key);
+        return flight != null && !flight.isExpired();
+    }
+
+    private V run(K key, Flight<V> flight, Duration resultTtl, Supplier<V> work) {
+        V result;
+        try {
+            result = work.get();
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.future.completeExceptionally(e);
+            throw e;
+        }
+
+        if (resultTtl.isZero() || resultTtl.isNegative()) {
+            flights.remove(key, flight);
+        } else {
+            flight.expiresAtNanos = System.nanoTime() + resultTtl.toNanos();
+        }
+        flight.future.complete(result);
+
+        if (flights.size() > SWEEP_THRESHOLD) {
+            flights.values().removeIf(Flight::isExpired);
+        }
+        return result;
+    }
+
+    private static final class Flight<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        // stays at MAX_VALUE while the call is running
+        private volatile long expiresAtNanos = Long.MAX_VALUE;
+
+        boolean isExpired() {
+            return future.isDone() && System.nanoTime() - expiresAtNanos >= 0;
+        }
+
+        V await() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.arte.ingestion.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeetCodeGraphQLClientTest {
+
+    // the first request (the combined query) is refused with a 400, everything after it answers
+    private final AtomicInteger requests = new AtomicInteger();
+    private final WebClient webClient = WebClient.builder()
+            .exchangeFunction(request -> Mono.just(requests.incrementAndGet() == 1
+                    ? ClientResponse.create(HttpStatus.BAD_REQUEST).build()
+                    : ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body("{\"data\":{}}")
+                            .build()))
+            .build();
+
+    @Test
+    void fetchUserData_rejectedCombinedQuery_fallsBackDuringCooldown() {
+        LeetCodeGraphQLClient client = client(30);
+
+        assertThat(client.fetchUserData("testuser", 20)).isNotNull();
+        assertThat(requests.get()).isEqualTo(5);
+
+        client.fetchUserData("testuser", 20);
+        assertThat(requests.get()).isEqualTo(9);
+    }
+
+    @Test
+    void fetchUserData_rejectedCombinedQuery_probedAgainAfterCooldown() {
+        LeetCodeGraphQLClient client = client(0);
+
+        client.fetchUserData("testuser", 20);
+        assertThat(requests.get()).isEqualTo(5);
+
+        assertThat(client.fetchUserData("testuser", 20)).isNotNull();
+        assertThat(requests.get()).isEqualTo(6);
+    }
+
+    private LeetCodeGraphQLClient client(long cooldownMinutes) {
+        LeetCodeGraphQLClient client = new LeetCodeGraphQLClient(webClient);
+        ReflectionTestUtils.setField(client, "combinedQueryEnabled", true);
+        ReflectionTestUtils.setField(client, "combinedQueryCooldownMinutes", cooldownMinutes);
+        return client;
+    }
+}
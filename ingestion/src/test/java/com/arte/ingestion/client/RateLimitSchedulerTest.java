@@ -0,0 +1,97 @@
+package com.arte.ingestion.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimitSchedulerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new RateLimitScheduler("test", 100, 10, Duration.ofSeconds(5),
+                3, Duration.ofMillis(1), 100, meterRegistry);
+    }
+
+    @Test
+    void filter_tooManyRequests_retriesAndSucceeds() {
+        AtomicInteger calls = new AtomicInteger();
+        ExchangeFunction exchange = request -> Mono.just(calls.getAndIncrement() == 0
+                ? ClientResponse.create(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "0").build()
+                : ClientResponse.create(HttpStatus.OK).body("ok").build());
+
+        String body = client(exchange).get().uri("/").retrieve().bodyToMono(String.class).block();
+
+        assertThat(body).isEqualTo("ok");
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("ingestion.upstream.rate.retries").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void filter_rateLimitResetTooFarAway_failsFast() {
+        AtomicInteger calls = new AtomicInteger();
+        long resetInAnHour = System.currentTimeMillis() / 1000 + 3600;
+        ExchangeFunction exchange = request -> {
+            calls.incrementAndGet();
+            return Mono.just(ClientResponse.create(HttpStatus.FORBIDDEN)
+                    .header(RateLimitScheduler.RATE_LIMIT_REMAINING, "0")
+                    .header(RateLimitScheduler.RATE_LIMIT_RESET, String.valueOf(resetInAnHour))
+                    .build());
+        };
+
+        assertThatThrownBy(() -> client(exchange).get().uri("/")
+                .header("Authorization", "Bearer token")
+                .retrieve().bodyToMono(String.class).block())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("exhausted");
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void filter_notFound_isNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+        ExchangeFunction exchange = request -> {
+            calls.incrementAndGet();
+            return Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+        };
+
+        var status = client(exchange).get().uri("/")
+                .exchangeToMono(response -> Mono.just(response.statusCode().value()))
+                .block();
+
+        assertThat(status).isEqualTo(404);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void tokenBucket_emptyBucket_queuesUntilMaxWait() {
+        var bucket = new RateLimitScheduler.TokenBucket(1, 1);
+        long maxWait = TimeUnit.MILLISECONDS.toNanos(1500);
+
+        assertThat(bucket.reserve(maxWait)).isZero();
+        assertThat(bucket.reserve(maxWait)).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(bucket.reserve(maxWait)).isEqualTo(-1);
+    }
+
+    private WebClient client(ExchangeFunction exchange) {
+        return WebClient.builder()
+                .exchangeFunction(exchange)
+                .filter(scheduler.filter())
+                .build();
+    }
+}
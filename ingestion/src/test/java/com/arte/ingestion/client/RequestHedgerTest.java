@@ -0,0 +1,104 @@
+package com.arte.ingestion.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestHedgerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CountDownLatch releaseSlowCall = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        releaseSlowCall.countDown();
+        executor.close();
+    }
+
+    @Test
+    void call_slowFirstAttempt_hedgeWins() throws Exception {
+        RequestHedger hedger = hedger(1.0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedger.call(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                awaitRelease();
+                return "slow";
+            }
+            return "hedge";
+        });
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(counter("ingestion.upstream.hedge.sent")).isEqualTo(1);
+        assertThat(counter("ingestion.upstream.hedge.won")).isEqualTo(1);
+    }
+
+    @Test
+    void call_noBudget_waitsForFirstAttempt() throws Exception {
+        RequestHedger hedger = hedger(0.0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedger.call(() -> {
+            attempts.incrementAndGet();
+            pause();
+            return "first";
+        });
+
+        assertThat(result).isEqualTo("first");
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(counter("ingestion.upstream.hedge.skipped")).isEqualTo(1);
+    }
+
+    @Test
+    void call_bothAttemptsFail_rethrows() {
+        RequestHedger hedger = hedger(1.0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> hedger.call(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                pause();
+            }
+            throw new IOException("HTTP 429");
+        })).isInstanceOf(IOException.class).hasMessage("HTTP 429");
+        assertThat(attempts.get()).isEqualTo(2);
+    }
+
+    private RequestHedger hedger(double budgetRatio) {
+        var settings = new RequestHedger.Settings(
+                0.95, Duration.ofMillis(10), Duration.ofMillis(20), budgetRatio, 5, 10, 10);
+        return new RequestHedger("linkedin", settings, executor, meterRegistry);
+    }
+
+    private void awaitRelease() throws IOException {
+        try {
+            releaseSlowCall.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void pause() throws IOException {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).tag("upstream", "linkedin").counter().count();
+    }
+}
@@ -0,0 +1,138 @@
+package com.arte.ingestion.client;
+
+import com.arte.ingestion.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UpstreamGuardTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void call_failureRateReached_opensCircuitAndRejects() {
+        UpstreamGuard guard = guard(Duration.ofMinutes(1), 4);
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.call(() -> {
+                throw new IOException("connect timed out");
+            })).isInstanceOf(IOException.class);
+        }
+
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.OPEN);
+        assertThatThrownBy(() -> guard.call(() -> "never called"))
+                .isInstanceOf(UpstreamUnavailableException.class)
+                .hasMessageContaining("circuit open");
+        assertThat(meterRegistry.get("ingestion.upstream.rejected").tag("reason", "circuit_open").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void call_openDurationElapsed_closesAfterSuccessfulTrials() throws Exception {
+        UpstreamGuard guard = guard(Duration.ZERO, 4);
+        for (int i = 0; i < 4; i++) {
+            try {
+                guard.call(() -> {
+                    throw new IOException("503");
+                });
+            } catch (IOException ignored) {
+            }
+        }
+
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.HALF_OPEN);
+        guard.call(() -> "ok");
+        guard.call(() -> "ok");
+
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.CLOSED);
+        assertThat(guard.getFailureRate()).isZero();
+    }
+
+    @Test
+    void filter_serverErrors_countAsFailuresButNotFoundDoesNot() {
+        UpstreamGuard guard = guard(Duration.ofMinutes(1), 4);
+        WebClient notFound = client(guard, HttpStatus.NOT_FOUND);
+        WebClient unavailable = client(guard, HttpStatus.SERVICE_UNAVAILABLE);
+
+        for (int i = 0; i < 4; i++) {
+            notFound.get().uri("/").exchangeToMono(response -> response.releaseBody()).block();
+        }
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.CLOSED);
+
+        // 2 of the last 4 calls failed = 50%
+        for (int i = 0; i < 2; i++) {
+            unavailable.get().uri("/").exchangeToMono(response -> response.releaseBody()).block();
+        }
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.OPEN);
+        assertThatThrownBy(() -> notFound.get().uri("/").retrieve().toBodilessEntity().block())
+                .isInstanceOf(UpstreamUnavailableException.class);
+    }
+
+    @Test
+    void filter_gitHubRateLimit403_countsAsFailure() {
+        UpstreamGuard guard = guard(Duration.ofMinutes(1), 4);
+        WebClient forbidden = client(guard, HttpStatus.FORBIDDEN);
+        WebClient throttled = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.FORBIDDEN)
+                        .header(RateLimitScheduler.RATE_LIMIT_REMAINING, "0")
+                        .build()))
+                .filter(guard.filter())
+                .build();
+
+        // a plain 403 is the caller's problem, not the upstream's
+        for (int i = 0; i < 4; i++) {
+            forbidden.get().uri("/").exchangeToMono(response -> response.releaseBody()).block();
+        }
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.CLOSED);
+
+        for (int i = 0; i < 2; i++) {
+            throttled.get().uri("/").exchangeToMono(response -> response.releaseBody()).block();
+        }
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.OPEN);
+    }
+
+    @Test
+    void call_bulkheadFull_rejectsAfterMaxWait() throws Exception {
+        UpstreamGuard guard = guard(Duration.ofMinutes(1), 4);
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        try (var executor = Executors.newSingleThreadExecutor()) {
+            executor.submit(() -> guard.call(() -> {
+                inside.countDown();
+                return finish.await(5, TimeUnit.SECONDS);
+            }));
+            assertThat(inside.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> guard.call(() -> "second"))
+                    .isInstanceOf(UpstreamUnavailableException.class)
+                    .hasMessageContaining("bulkhead full");
+            finish.countDown();
+        }
+        assertThat(guard.getAvailableConcurrency()).isEqualTo(1);
+    }
+
+    private UpstreamGuard guard(Duration openDuration, int window) {
+        return new UpstreamGuard("test", new UpstreamGuard.Settings(
+                window, window, 50, openDuration, 2, 1, Duration.ofMillis(50), Duration.ofSeconds(5)),
+                meterRegistry);
+    }
+
+    private WebClient client(UpstreamGuard guard, HttpStatus status) {
+        return WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(status).build()))
+                .filter(guard.filter())
+                .build();
+    }
+}
@@ -1,11 +1,14 @@
 package com.arte.ingestion.controller;
 
+import com.arte.ingestion.config.IngestionExecutorConfig;
+import com.arte.ingestion.service.FullIngestionService;
 import com.arte.ingestion.service.GitHubIngestionService;
 import com.arte.ingestion.service.LeetCodeIngestionService;
 import com.arte.ingestion.service.ResumeProcessingService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -16,6 +19,7 @@ import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -23,6 +27,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(IngestionController.class)
+@Import({FullIngestionService.class, IngestionExecutorConfig.class})
 class IngestionControllerTest {
 
     @Autowired
@@ -145,7 +150,7 @@ class IngestionControllerTest {
                 true, "GitHub success", 2, List.of("repo1", "repo2")
         );
         
-        when(gitHubIngestionService.ingestGitHubData(userId)).thenReturn(githubResult);
+        when(gitHubIngestionService.ingestGitHubData(eq(userId), any())).thenReturn(githubResult);
 
         mockMvc.perform(post("/api/ingestion/full/" + userId))
                 .andExpect(status().isOk())
@@ -160,13 +165,31 @@ class IngestionControllerTest {
         );
         var leetcodeResult = new LeetCodeIngestionService.IngestionResult(true, "LeetCode success", 100);
         
-        when(gitHubIngestionService.ingestGitHubData(userId)).thenReturn(githubResult);
-        when(leetCodeIngestionService.ingestLeetCodeData(any(UUID.class), anyString()))
+        when(gitHubIngestionService.ingestGitHubData(eq(userId), any())).thenReturn(githubResult);
+        when(leetCodeIngestionService.ingestLeetCodeData(any(UUID.class), anyString(), any()))
                 .thenReturn(leetcodeResult);
 
         mockMvc.perform(post("/api/ingestion/full/" + userId)
                         .param("leetcodeUsername", "testuser"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.success").value(true));
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.timingsMs.github").exists())
+                .andExpect(jsonPath("$.data.timingsMs.leetcode").exists());
+    }
+
+    @Test
+    void fullIngestion_githubFails_stillRunsLeetCode() throws Exception {
+        UUID userId = UUID.randomUUID();
+        var leetcodeResult = new LeetCodeIngestionService.IngestionResult(true, "LeetCode success", 100);
+
+        when(gitHubIngestionService.ingestGitHubData(eq(userId), any())).thenThrow(new IllegalStateException("github down"));
+        when(leetCodeIngestionService.ingestLeetCodeData(any(UUID.class), anyString(), any()))
+                .thenReturn(leetcodeResult);
+
+        mockMvc.perform(post("/api/ingestion/full/" + userId)
+                        .param("leetcodeUsername", "testuser"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("GitHub: Failed - github down | LeetCode: LeetCode success"));
     }
 }
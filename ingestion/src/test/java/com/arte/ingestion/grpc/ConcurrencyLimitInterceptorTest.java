@@ -0,0 +1,90 @@
+package com.arte.ingestion.grpc;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitInterceptorTest {
+
+    private final CountDownLatch inHandler = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ConcurrencyLimitInterceptor interceptor;
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        interceptor = new ConcurrencyLimitInterceptor(1, new SimpleMeterRegistry());
+
+        // health check parks until the test releases it, so the single permit stays taken
+        var service = new IngestionServiceGrpc.IngestionServiceImplBase() {
+            @Override
+            public void healthCheck(IngestionHealthRequest request, StreamObserver<IngestionHealthResponse> observer) {
+                inHandler.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                observer.onNext(IngestionHealthResponse.newBuilder().setHealthy(true).build());
+                observer.onCompleted();
+            }
+        };
+
+        server = InProcessServerBuilder.forName(name)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .addService(ServerInterceptors.intercept(service, interceptor))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void interceptCall_limitReached_rejectsWithResourceExhausted() throws Exception {
+        var stub = IngestionServiceGrpc.newBlockingStub(channel);
+        var request = IngestionHealthRequest.newBuilder().setServiceName("test").build();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<IngestionHealthResponse> first = executor.submit(() -> stub.healthCheck(request));
+            assertTrue(inHandler.await(5, TimeUnit.SECONDS));
+
+            var e = assertThrows(StatusRuntimeException.class, () -> stub.healthCheck(request));
+            assertEquals(Status.Code.RESOURCE_EXHAUSTED, e.getStatus().getCode());
+
+            release.countDown();
+            assertTrue(first.get(5, TimeUnit.SECONDS).getHealthy());
+        }
+
+        // the permit is handed back once the server side of the first call completes
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (interceptor.activeCalls() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, interceptor.activeCalls());
+        assertTrue(stub.healthCheck(request).getHealthy());
+    }
+}
@@ -1,7 +1,10 @@
 package com.arte.ingestion.grpc;
 
+import com.arte.ingestion.service.FullIngestionService;
 import com.arte.ingestion.service.GitHubIngestionService;
+import com.arte.ingestion.service.IngestionProgressListener;
 import com.arte.ingestion.service.LeetCodeIngestionService;
+import com.arte.ingestion.service.LinkedInJobBatchScraper;
 import com.arte.ingestion.service.LinkedInJobIngestionService;
 import com.arte.ingestion.service.ResumeProcessingService;
 import io.grpc.stub.StreamObserver;
@@ -14,9 +17,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,9 +34,13 @@ class IngestionGrpcServiceImplTest {
     @Mock private LeetCodeIngestionService leetCodeIngestionService;
     @Mock private ResumeProcessingService resumeProcessingService;
     @Mock private LinkedInJobIngestionService linkedInJobIngestionService;
+    @Mock private LinkedInJobBatchScraper linkedInJobBatchScraper;
+    @Mock private StreamObserver<LinkedInJobBatchEvent> batchObserver;
     @Mock private StreamObserver<IngestGitHubResponse> githubObserver;
     @Mock private StreamObserver<IngestLeetCodeResponse> leetcodeObserver;
     @Mock private StreamObserver<IngestionHealthResponse> healthObserver;
+    @Mock private StreamObserver<IngestAllResponse> allObserver;
+    @Mock private StreamObserver<IngestionProgressEvent> progressObserver;
 
     private IngestionGrpcServiceImpl grpcService;
 
@@ -38,7 +50,10 @@ class IngestionGrpcServiceImplTest {
                 gitHubIngestionService,
                 leetCodeIngestionService,
                 resumeProcessingService,
-                linkedInJobIngestionService
+                linkedInJobIngestionService,
+                new FullIngestionService(gitHubIngestionService, leetCodeIngestionService, resumeProcessingService,
+                        Executors.newVirtualThreadPerTaskExecutor()),
+                linkedInJobBatchScraper
         );
     }
 
@@ -122,4 +137,113 @@ class IngestionGrpcServiceImplTest {
         assertTrue(response.getHealthy());
         assertTrue(response.getTimestamp() > 0);
     }
+
+    @Test
+    void ingestAll_runsSourcesConcurrentlyAndReportsTimings() throws Exception {
+        UUID userId = UUID.randomUUID();
+        // each source waits for the other one to start, only passes if both run at the same time
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(gitHubIngestionService.ingestGitHubData(eq(userId), any())).thenAnswer(inv -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            return new GitHubIngestionService.IngestionResult(true, "ok", 1, List.of("repo1"));
+        });
+        when(leetCodeIngestionService.ingestLeetCodeData(eq(userId), eq("lc"), any())).thenAnswer(inv -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            return new LeetCodeIngestionService.IngestionResult(true, "ok", 42);
+        });
+
+        var request = IngestAllRequest.newBuilder()
+                .setUserId(userId.toString())
+                .setLeetcodeUsername("lc")
+                .build();
+        grpcService.ingestAll(request, allObserver);
+
+        ArgumentCaptor<IngestAllResponse> captor = ArgumentCaptor.forClass(IngestAllResponse.class);
+        verify(allObserver).onNext(captor.capture());
+        var response = captor.getValue();
+        assertTrue(response.getSuccess());
+        assertTrue(response.getGithubResult().getSuccess());
+        assertEquals(42, response.getLeetcodeResult().getProblemsSolved());
+        assertFalse(response.hasResumeResult());
+        assertEquals(2, response.getSourceTimingsMsCount());
+    }
+
+    @Test
+    void ingestAll_leetcodeFails_githubResultUnaffected() {
+        UUID userId = UUID.randomUUID();
+        when(gitHubIngestionService.ingestGitHubData(eq(userId), any()))
+                .thenReturn(new GitHubIngestionService.IngestionResult(true, "ok", 1, List.of("repo1")));
+        when(leetCodeIngestionService.ingestLeetCodeData(eq(userId), eq("lc"), any()))
+                .thenThrow(new IllegalStateException("leetcode down"));
+
+        var request = IngestAllRequest.newBuilder()
+                .setUserId(userId.toString())
+                .setLeetcodeUsername("lc")
+                .build();
+        grpcService.ingestAll(request, allObserver);
+
+        ArgumentCaptor<IngestAllResponse> captor = ArgumentCaptor.forClass(IngestAllResponse.class);
+        verify(allObserver).onNext(captor.capture());
+        var response = captor.getValue();
+        assertTrue(response.getGithubResult().getSuccess());
+        assertFalse(response.getLeetcodeResult().getSuccess());
+        assertEquals("Error: leetcode down", response.getLeetcodeResult().getMessage());
+    }
+
+    @Test
+    void ingestAllStream_emitsProgressThenFinalResult() {
+        UUID userId = UUID.randomUUID();
+        when(gitHubIngestionService.ingestGitHubData(eq(userId), any())).thenAnswer(inv -> {
+            IngestionProgressListener listener = inv.getArgument(1);
+            listener.onProgress("github", IngestionProgressListener.Stage.REPOS_FETCHED, "1 pinned repos");
+            return new GitHubIngestionService.IngestionResult(true, "ok", 1, List.of("repo1"));
+        });
+
+        var request = IngestAllRequest.newBuilder()
+                .setUserId(userId.toString())
+                .build();
+        grpcService.ingestAllStream(request, progressObserver);
+
+        ArgumentCaptor<IngestionProgressEvent> captor = ArgumentCaptor.forClass(IngestionProgressEvent.class);
+        verify(progressObserver, times(4)).onNext(captor.capture());
+        verify(progressObserver).onCompleted();
+
+        var stages = captor.getAllValues().stream().map(IngestionProgressEvent::getStage).toList();
+        assertEquals(List.of(
+                IngestionStage.SOURCE_STARTED,
+                IngestionStage.REPOS_FETCHED,
+                IngestionStage.SOURCE_COMPLETED,
+                IngestionStage.INGESTION_COMPLETED), stages);
+        var last = captor.getAllValues().getLast();
+        assertTrue(last.getResult().getSuccess());
+        assertEquals(1, last.getResult().getGithubResult().getReposProcessed());
+    }
+
+    @Test
+    void ingestLinkedInJobsBatch_relaysEachResult() {
+        UUID userId = UUID.randomUUID();
+        when(linkedInJobBatchScraper.scrape(eq(userId), eq(List.of("4012345678", "4012345679")), any(), any()))
+                .thenAnswer(inv -> {
+                    Consumer<LinkedInJobBatchScraper.JobResult> onResult = inv.getArgument(3);
+                    onResult.accept(new LinkedInJobBatchScraper.JobResult(
+                            "4012345678", LinkedInJobBatchScraper.Status.EXISTING, "", 1, 2));
+                    onResult.accept(new LinkedInJobBatchScraper.JobResult(
+                            "4012345679", LinkedInJobBatchScraper.Status.SCRAPED, "", 2, 2));
+                    return new LinkedInJobBatchScraper.BatchSummary(2, 1, 1, 0, 0);
+                });
+
+        grpcService.ingestLinkedInJobsBatch(IngestLinkedInJobsBatchRequest.newBuilder()
+                .setUserId(userId.toString())
+                .addAllJobIds(List.of("4012345678", "4012345679"))
+                .build(), batchObserver);
+
+        ArgumentCaptor<LinkedInJobBatchEvent> captor = ArgumentCaptor.forClass(LinkedInJobBatchEvent.class);
+        verify(batchObserver, times(2)).onNext(captor.capture());
+        verify(batchObserver).onCompleted();
+        assertEquals(List.of(LinkedInJobBatchStatus.JOB_EXISTING, LinkedInJobBatchStatus.JOB_SCRAPED),
+                captor.getAllValues().stream().map(LinkedInJobBatchEvent::getStatus).toList());
+        assertEquals(2, captor.getAllValues().getLast().getCompleted());
+    }
 }
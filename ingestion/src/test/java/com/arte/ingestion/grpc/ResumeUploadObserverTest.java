@@ -0,0 +1,103 @@
+package com.arte.ingestion.grpc;
+
+import com.arte.ingestion.service.ResumeProcessingService;
+import com.google.protobuf.ByteString;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResumeUploadObserverTest {
+
+    @Mock private ResumeProcessingService resumeProcessingService;
+    @Mock private StreamObserver<IngestResumeResponse> responseObserver;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(resumeProcessingService.maxUploadBytes()).thenReturn(16L);
+    }
+
+    @Test
+    void chunksAreSpooledHashedAndCleanedUp() throws Exception {
+        AtomicReference<Path> spooled = new AtomicReference<>();
+        when(resumeProcessingService.processResume(eq(userId), eq("cv.pdf"), any(Path.class), anyString(), any()))
+                .thenAnswer(inv -> {
+                    Path file = inv.getArgument(2);
+                    spooled.set(file);
+                    assertEquals("hello world", Files.readString(file));
+                    return new ResumeProcessingService.ProcessingResult(true, "ok", 2);
+                });
+
+        var observer = new ResumeUploadObserver(resumeProcessingService, responseObserver);
+        observer.onNext(header());
+        observer.onNext(data("hello "));
+        observer.onNext(data("world"));
+        observer.onCompleted();
+
+        String expectedHash = ResumeProcessingService.toFileHash(
+                ResumeProcessingService.sha256().digest("hello world".getBytes(StandardCharsets.UTF_8)));
+        verify(resumeProcessingService).processResume(eq(userId), eq("cv.pdf"), any(Path.class), eq(expectedHash), any());
+
+        ArgumentCaptor<IngestResumeResponse> captor = ArgumentCaptor.forClass(IngestResumeResponse.class);
+        verify(responseObserver).onNext(captor.capture());
+        verify(responseObserver).onCompleted();
+        assertTrue(captor.getValue().getSuccess());
+        assertEquals(2, captor.getValue().getWordCount());
+        assertFalse(Files.exists(spooled.get()));
+    }
+
+    @Test
+    void oversizedUploadIsRejected() throws Exception {
+        var observer = new ResumeUploadObserver(resumeProcessingService, responseObserver);
+        observer.onNext(header());
+        observer.onNext(data("0123456789"));
+        observer.onNext(data("0123456789"));
+        observer.onCompleted();
+
+        ArgumentCaptor<Throwable> captor = ArgumentCaptor.forClass(Throwable.class);
+        verify(responseObserver).onError(captor.capture());
+        assertTrue(captor.getValue() instanceof StatusRuntimeException);
+        assertTrue(captor.getValue().getMessage().contains("INVALID_ARGUMENT"));
+        verify(responseObserver, never()).onCompleted();
+        verify(resumeProcessingService, never()).processResume(any(), any(), any(Path.class), any(), any());
+    }
+
+    @Test
+    void dataBeforeHeaderIsRejected() {
+        var observer = new ResumeUploadObserver(resumeProcessingService, responseObserver);
+        observer.onNext(data("hello"));
+
+        verify(responseObserver).onError(any(StatusRuntimeException.class));
+    }
+
+    private ResumeChunk header() {
+        return ResumeChunk.newBuilder()
+                .setHeader(ResumeUploadHeader.newBuilder()
+                        .setUserId(userId.toString())
+                        .setFilename("cv.pdf"))
+                .build();
+    }
+
+    private static ResumeChunk data(String text) {
+        return ResumeChunk.newBuilder()
+                .setData(ByteString.copyFromUtf8(text))
+                .build();
+    }
+}
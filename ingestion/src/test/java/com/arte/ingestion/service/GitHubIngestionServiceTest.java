@@ -3,9 +3,10 @@ package com.arte.ingestion.service;
 import com.arte.ingestion.client.GitHubGraphQLClient;
 import com.arte.ingestion.dto.github.GitHubGraphQLResponse;
 import com.arte.ingestion.dto.github.PrimaryLanguage;
+import com.arte.ingestion.dto.github.ReadmeBlob;
+import com.arte.ingestion.dto.github.ReadmeContent;
 import com.arte.ingestion.dto.github.RepositoryNode;
 import com.arte.ingestion.dto.github.RepositoryTopics;
-import com.arte.ingestion.entity.UserInfo;
 import com.arte.ingestion.entity.UserKnowledgeBase;
 import com.arte.ingestion.entity.Users;
 import com.arte.ingestion.repository.UserInfoRepository;
@@ -13,19 +14,27 @@ import com.arte.ingestion.repository.UserKnowledgeBaseRepository;
 import com.arte.ingestion.repository.UserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -51,10 +60,13 @@ class GitHubIngestionServiceTest {
         service = new GitHubIngestionService(
                 gitHubGraphQLClient,
                 userRepository,
-                userInfoRepository,
                 knowledgeBaseRepository,
-                objectMapper
+                new IngestionWriteService(userInfoRepository, knowledgeBaseRepository, new SimpleMeterRegistry()),
+                objectMapper,
+                new IngestionLeaseLock(mock(JdbcTemplate.class), new SimpleMeterRegistry())
         );
+        ReflectionTestUtils.setField(service, "readmeConcurrency", 4);
+        ReflectionTestUtils.setField(service, "readmeTimeoutSeconds", 1);
     }
 
     @Test
@@ -89,17 +101,9 @@ class GitHubIngestionServiceTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(gitHubGraphQLClient.fetchPinnedRepos(anyString(), anyString())).thenReturn(response);
-        when(gitHubGraphQLClient.fetchReadme(anyString(), anyString())).thenReturn("# Test README");
-        when(knowledgeBaseRepository.findByUserIdAndSourceTypeAndSourceUrl(any(), any(), any()))
-                .thenReturn(Optional.empty());
-        when(knowledgeBaseRepository.save(any(UserKnowledgeBase.class)))
-                .thenAnswer(inv -> {
-                    UserKnowledgeBase kb = inv.getArgument(0);
-                    kb.setId(UUID.randomUUID());
-                    return kb;
-                });
-        when(userInfoRepository.findById(userId)).thenReturn(Optional.empty());
-        when(userInfoRepository.save(any(UserInfo.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(gitHubGraphQLClient.fetchReadmeAsync(anyString(), anyString())).thenReturn(Mono.just(new ReadmeContent("# Test README", false)));
+        when(knowledgeBaseRepository.findAllByUserIdAndSourceType(any(), any())).thenReturn(List.of());
+        when(knowledgeBaseRepository.upsertAll(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
 
         var result = service.ingestGitHubData(userId);
 
@@ -107,6 +111,41 @@ class GitHubIngestionServiceTest {
         assertThat(result.reposProcessed()).isEqualTo(1);
     }
 
+    @Test
+    void ingestGitHubData_readmeValidatorsRememberedAfterWrite() {
+        UUID userId = UUID.randomUUID();
+        Users user = createTestUser(userId);
+        ReadmeContent readme = new ReadmeContent("# Test README", false, "\"etag-1\"", null);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(gitHubGraphQLClient.fetchPinnedRepos(anyString(), anyString())).thenReturn(createMockGitHubResponse());
+        when(gitHubGraphQLClient.fetchReadmeAsync(anyString(), anyString())).thenReturn(Mono.just(readme));
+        when(knowledgeBaseRepository.findAllByUserIdAndSourceType(any(), any())).thenReturn(List.of());
+        when(knowledgeBaseRepository.upsertAll(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        service.ingestGitHubData(userId);
+
+        InOrder order = inOrder(knowledgeBaseRepository, gitHubGraphQLClient);
+        order.verify(knowledgeBaseRepository).upsertAll(anyList());
+        order.verify(gitHubGraphQLClient).rememberReadme("https://github.com/testuser/test-repo", "ghp_testtoken", readme);
+    }
+
+    @Test
+    void ingestGitHubData_writeFails_readmeValidatorsNotRemembered() {
+        UUID userId = UUID.randomUUID();
+        Users user = createTestUser(userId);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(gitHubGraphQLClient.fetchPinnedRepos(anyString(), anyString())).thenReturn(createMockGitHubResponse());
+        when(gitHubGraphQLClient.fetchReadmeAsync(anyString(), anyString()))
+                .thenReturn(Mono.just(new ReadmeContent("# Test README", false, "\"etag-1\"", null)));
+        when(knowledgeBaseRepository.findAllByUserIdAndSourceType(any(), any())).thenReturn(List.of());
+        when(knowledgeBaseRepository.upsertAll(anyList())).thenThrow(new IllegalStateException("connection reset"));
+
+        assertThatThrownBy(() -> service.ingestGitHubData(userId)).hasMessageContaining("connection reset");
+        verify(gitHubGraphQLClient, never()).rememberReadme(anyString(), anyString(), any());
+    }
+
     @Test
     void ingestGitHubData_updatesExistingKnowledgeBase() {
         UUID userId = UUID.randomUUID();
@@ -118,23 +157,151 @@ class GitHubIngestionServiceTest {
                 .id(kbId)
                 .content("old content")
                 .sourceType("github")
+                .sourceUrl("https://github.com/testuser/test-repo")
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(gitHubGraphQLClient.fetchPinnedRepos(anyString(), anyString())).thenReturn(response);
-        when(gitHubGraphQLClient.fetchReadme(anyString(), anyString())).thenReturn("# Updated README");
-        when(knowledgeBaseRepository.findByUserIdAndSourceTypeAndSourceUrl(any(), any(), any()))
-                .thenReturn(Optional.of(existingKb));
-        when(knowledgeBaseRepository.save(any(UserKnowledgeBase.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(userInfoRepository.findById(userId)).thenReturn(Optional.empty());
-        when(userInfoRepository.save(any(UserInfo.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(gitHubGraphQLClient.fetchReadmeAsync(anyString(), anyString())).thenReturn(Mono.just(new ReadmeContent("# Updated README", false)));
+        when(knowledgeBaseRepository.findAllByUserIdAndSourceType(any(), any())).thenReturn(List.of(existingKb));
+        when(knowledgeBaseRepository.upsertAll(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
 
         var result = service.ingestGitHubData(userId);
 
         assertThat(result.success()).isTrue();
         
-        // verify entry was saved
-        verify(knowledgeBaseRepository).save(any(UserKnowledgeBase.class));
+        // verify entry was upserted with the new content
+        verify(knowledgeBaseRepository).upsertAll(argThat(entries -> entries.size() == 1
+                && entries.get(0).getContent().contains("# Updated README")));
+    }
+
+    @Test
+    void ingestGitHubData_inlineReadme_skipsRestFetch() {
+        UUID userId = UUID.randomUUID();
+        Users user = createTestUser(userId);
+        ReadmeBlob blob = new ReadmeBlob("abc123", "# Inline README");
+        GitHubGraphQLResponse response = createMockGitHubResponse(blob);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(gitHubGraphQLClient.fetchPinnedRepos(anyString(), anyString())).thenReturn(response);
+        when(gitHubGraphQLClient.resolveInlineReadme(anyString(), anyString(), eq(blob)))
+                .thenReturn(new ReadmeContent("# Inline README", false));
+        when(knowledgeBaseRepository.findAllByUserIdAndSourceType(any(), any())).thenReturn(List.of());
+        when(knowledgeBaseRepository.upsertAll(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        var result = service.ingestGitHubData(userId);
+
+        assertThat(result.success()).isTrue();
+        verify(gitHubGraphQLClient, never()).fetchReadmeAsync(anyString(), anyString());
+        verify(knowledgeBaseRepository).upsertAll(argThat(entries -> entries.get(0).getContent().contains("# Inline README")));
+    }
+
+    @Test
+    void ingestGitHubData_readmeNotModified_skipsKnowledgeBaseWrite() {
+        UUID userId = UUID.randomUUID();
+        Users user = createTestUser(userId);
+        GitHubGraphQLResponse response = createMockGitHubResponse();
+
+        UserKnowledgeBase existingKb = UserKnowledgeBase.builder()
+                .id(UUID.randomUUID())
+                .content("cached content")
+                .sourceType("github")
+                .sourceUrl("https://github.com/testuser/test-repo")
+                .metadata(Map.of(
+                        "repoName", "test-repo",
+                        "repoUrl", "https://github.com/testuser/test-repo",
+                        "description", "A test repository",
+                        "primaryLanguage", "Java",
+                        "stars", 100,
+                        "forks", 50,
+                        "topics", List.of("java")
+                ))
+                .build();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(gitHubGraphQLClient.fetchPinnedRepos(anyString(), anyString())).thenReturn(response);
+        when(gitHubGraphQLClient.fetchReadmeAsync(anyString(), anyString()))
+                .thenReturn(Mono.just(new ReadmeContent("# Cached README", true)));
+        when(knowledgeBaseRepository.findAllByUserIdAndSourceType(any(), any())).thenReturn(List.of(existingKb));
+
+        var result = service.ingestGitHubData(userId);
+
+        assertThat(result.success()).isTrue();
+        assertThat(existingKb.getContent()).isEqualTo("cached content");
+        verify(knowledgeBaseRepository).upsertAll(List.of());
+    }
+
+    @Test
+    void ingestGitHubData_contentHashUnchanged_skipsSecondWrite() {
+        UUID userId = UUID.randomUUID();
+        Users user = createTestUser(userId);
+        GitHubGraphQLResponse response = createMockGitHubResponse();
+        ArgumentCaptor<List<UserKnowledgeBase>> upserted = ArgumentCaptor.forClass(List.class);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(gitHubGraphQLClient.fetchPinnedRepos(anyString(), anyString())).thenReturn(response);
+        when(gitHubGraphQLClient.fetchReadmeAsync(anyString(), anyString()))
+                .thenReturn(Mono.just(new ReadmeContent("# Test README", false)));
+        when(knowledgeBaseRepository.findAllByUserIdAndSourceType(any(), any())).thenReturn(List.of());
+        when(knowledgeBaseRepository.upsertAll(upserted.capture())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        service.ingestGitHubData(userId);
+
+        UserKnowledgeBase written = upserted.getValue().get(0);
+        assertThat(written.getContentHash()).isNotBlank();
+        assertThat(written.getUser()).isEqualTo(user);
+
+        // same data again, the stored fingerprint matches
+        when(knowledgeBaseRepository.findAllByUserIdAndSourceType(any(), any())).thenReturn(List.of(written));
+
+        var result = service.ingestGitHubData(userId);
+
+        assertThat(result.success()).isTrue();
+        assertThat(upserted.getAllValues()).hasSize(2);
+        assertThat(upserted.getAllValues().get(1)).isEmpty();
+    }
+
+    @Test
+    void ingestGitHubData_readmeDeadlineExceeded_stillIngestsRepo() {
+        UUID userId = UUID.randomUUID();
+        Users user = createTestUser(userId);
+        GitHubGraphQLResponse response = createMockGitHubResponse();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(gitHubGraphQLClient.fetchPinnedRepos(anyString(), anyString())).thenReturn(response);
+        when(gitHubGraphQLClient.fetchReadmeAsync(anyString(), anyString())).thenReturn(Mono.never());
+        when(knowledgeBaseRepository.findAllByUserIdAndSourceType(any(), any())).thenReturn(List.of());
+        when(knowledgeBaseRepository.upsertAll(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        var result = service.ingestGitHubData(userId);
+
+        assertThat(result.success()).isTrue();
+        assertThat(result.reposProcessed()).isEqualTo(1);
+        verify(knowledgeBaseRepository).upsertAll(argThat(entries -> !entries.get(0).getContent().contains("--- README ---")));
+    }
+
+    @Test
+    void ingestGitHubData_readmeDeadlineExceeded_keepsStoredEntry() {
+        UUID userId = UUID.randomUUID();
+        Users user = createTestUser(userId);
+        UserKnowledgeBase existingKb = UserKnowledgeBase.builder()
+                .id(UUID.randomUUID())
+                .content("stored content\n--- README ---\n# Test README")
+                .sourceType("github")
+                .sourceUrl("https://github.com/testuser/test-repo")
+                .contentHash("stored-hash")
+                .build();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(gitHubGraphQLClient.fetchPinnedRepos(anyString(), anyString())).thenReturn(createMockGitHubResponse());
+        when(gitHubGraphQLClient.fetchReadmeAsync(anyString(), anyString())).thenReturn(Mono.never());
+        when(knowledgeBaseRepository.findAllByUserIdAndSourceType(any(), any())).thenReturn(List.of(existingKb));
+
+        var result = service.ingestGitHubData(userId);
+
+        assertThat(result.success()).isTrue();
+        verify(knowledgeBaseRepository).upsertAll(List.of());
+        assertThat(existingKb.getContent()).contains("# Test README");
     }
 
     private Users createTestUser(UUID userId) {
@@ -144,6 +311,10 @@ class GitHubIngestionServiceTest {
     }
 
     private GitHubGraphQLResponse createMockGitHubResponse() {
+        return createMockGitHubResponse(null);
+    }
+
+    private GitHubGraphQLResponse createMockGitHubResponse(ReadmeBlob readme) {
         RepositoryTopics.TopicWrapper topicWrapper = new RepositoryTopics.TopicWrapper(
                 new RepositoryTopics.Topic("java")
         );
@@ -155,7 +326,8 @@ class GitHubIngestionServiceTest {
                 100,
                 50,
                 new PrimaryLanguage("Java", "#b07219"),
-                new RepositoryTopics(List.of(topicWrapper))
+                new RepositoryTopics(List.of(topicWrapper)),
+                readme
         );
 
         return new GitHubGraphQLResponse(
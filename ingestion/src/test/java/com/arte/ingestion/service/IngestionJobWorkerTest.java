@@ -0,0 +1,121 @@
+package com.arte.ingestion.service;
+
+import com.arte.ingestion.exception.UpstreamUnavailableException;
+import com.arte.ingestion.repository.IngestionJobQueue;
+import com.arte.ingestion.repository.IngestionJobQueue.ClaimedJob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngestionJobWorkerTest {
+
+    @Mock private IngestionJobQueue jobQueue;
+    @Mock private GitHubIngestionService gitHubIngestionService;
+    @Mock private LeetCodeIngestionService leetCodeIngestionService;
+    @Mock private LinkedInJobIngestionService linkedInJobIngestionService;
+    @Mock private FullIngestionService fullIngestionService;
+
+    private IngestionJobWorker worker;
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        worker = new IngestionJobWorker(jobQueue, gitHubIngestionService, leetCodeIngestionService,
+                linkedInJobIngestionService, fullIngestionService, Runnable::run, new SimpleMeterRegistry(), 2);
+        ReflectionTestUtils.setField(worker, "retryBackoffSeconds", 10L);
+        ReflectionTestUtils.setField(worker, "leaseSeconds", 900L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    @Test
+    void poll_claimsOnlyFreeSlotsAndCompletesJobs() {
+        ClaimedJob job = job("GITHUB", Map.of(), 1);
+        when(jobQueue.claim(anyString(), eq(2))).thenReturn(List.of(job));
+        when(gitHubIngestionService.ingestGitHubData(userId))
+                .thenReturn(new GitHubIngestionService.IngestionResult(true, "ok", 1, List.of("repo1")));
+
+        worker.poll();
+
+        verify(jobQueue).complete(eq(job.id()), anyString(), argThat(result -> Integer.valueOf(1).equals(result.get("reposProcessed"))));
+    }
+
+    @Test
+    void run_upstreamOutage_isRetriedWithBackoff() {
+        ClaimedJob job = job("LEETCODE", Map.of("leetcodeUsername", "lc"), 2);
+        when(leetCodeIngestionService.ingestLeetCodeData(userId, "lc"))
+                .thenThrow(new UpstreamUnavailableException("leetcode", "circuit open"));
+
+        worker.run(job);
+
+        verify(jobQueue).fail(eq(job.id()), anyString(), contains("circuit open"), eq(true), eq(Duration.ofSeconds(20)), isNull());
+        verify(jobQueue, never()).complete(any(), any(), any());
+    }
+
+    @Test
+    void run_linkedInNetworkError_isRetried() throws Exception {
+        ClaimedJob job = job("LINKEDIN", Map.of("jobId", "123"), 1);
+        when(linkedInJobIngestionService.ingestLinkedInJob(userId, "123")).thenThrow(new IOException("connect timed out"));
+
+        worker.run(job);
+
+        verify(jobQueue).fail(eq(job.id()), anyString(), contains("connect timed out"), eq(true), eq(Duration.ofSeconds(10)), isNull());
+    }
+
+    @Test
+    void run_unsuccessfulResult_failsWithoutRetry() throws Exception {
+        ClaimedJob job = job("LINKEDIN", Map.of("jobId", "123"), 1);
+        when(linkedInJobIngestionService.ingestLinkedInJob(userId, "123"))
+                .thenReturn(new LinkedInJobIngestionService.LinkedInIngestionResult(false, "job not found"));
+
+        worker.run(job);
+
+        verify(jobQueue).fail(eq(job.id()), anyString(), eq("job not found"), eq(false), any(), anyMap());
+    }
+
+    @Test
+    void run_longJob_keepsLeaseFresh() {
+        ReflectionTestUtils.setField(worker, "leaseSeconds", 1L);
+        ClaimedJob job = job("GITHUB", Map.of(), 1);
+        CountDownLatch heartbeat = new CountDownLatch(1);
+        when(jobQueue.heartbeat(eq(job.id()), anyString())).thenAnswer(inv -> {
+            heartbeat.countDown();
+            return true;
+        });
+        // the job only finishes once its lease was renewed at least once
+        when(gitHubIngestionService.ingestGitHubData(userId)).thenAnswer(inv -> {
+            assertTrue(heartbeat.await(5, TimeUnit.SECONDS));
+            return new GitHubIngestionService.IngestionResult(true, "ok", 0, List.of());
+        });
+
+        worker.run(job);
+
+        verify(jobQueue, atLeastOnce()).heartbeat(eq(job.id()), anyString());
+        verify(jobQueue).complete(eq(job.id()), anyString(), anyMap());
+    }
+
+    private ClaimedJob job(String type, Map<String, Object> payload, int attempts) {
+        return new ClaimedJob(UUID.randomUUID(), userId, type, payload, attempts, 3);
+    }
+}
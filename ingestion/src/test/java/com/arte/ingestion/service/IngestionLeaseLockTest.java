@@ -0,0 +1,83 @@
+package com.arte.ingestion.service;
+
+import com.arte.ingestion.exception.IngestionInProgressException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngestionLeaseLockTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private IngestionLeaseLock lock;
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lock = new IngestionLeaseLock(jdbcTemplate, meterRegistry);
+        ReflectionTestUtils.setField(lock, "enabled", true);
+        ReflectionTestUtils.setField(lock, "leaseSeconds", 120L);
+        ReflectionTestUtils.setField(lock, "waitMs", 50L);
+        ReflectionTestUtils.setField(lock, "retryIntervalMs", 10L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lock.shutdown();
+    }
+
+    @Test
+    void withLock_acquiresRunsAndReleases() {
+        when(jdbcTemplate.update(contains("INSERT INTO ingestion_locks"), eq(userId + ":github"), anyString(), anyString()))
+                .thenReturn(1);
+
+        String result = lock.withLock(userId, "github", () -> "done");
+
+        assertEquals("done", result);
+        verify(jdbcTemplate).update(contains("DELETE FROM ingestion_locks"), eq(userId + ":github"), anyString());
+        assertEquals(1.0, meterRegistry.counter("ingestion.lock.acquired", "source", "github").count());
+    }
+
+    @Test
+    void withLock_heldElsewhere_givesUpAfterWaiting() {
+        when(jdbcTemplate.update(contains("INSERT INTO ingestion_locks"), anyString(), anyString(), anyString()))
+                .thenReturn(0);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        assertThrows(IngestionInProgressException.class,
+                () -> lock.withLock(userId, "leetcode", () -> ran.getAndSet(true)));
+
+        assertFalse(ran.get());
+        verify(jdbcTemplate, never()).update(contains("DELETE FROM ingestion_locks"), any(Object[].class));
+        assertEquals(1.0, meterRegistry.counter("ingestion.lock.contended", "source", "leetcode").count());
+    }
+
+    @Test
+    void withLock_releasesWhenWorkFails() {
+        when(jdbcTemplate.update(contains("INSERT INTO ingestion_locks"), anyString(), anyString(), anyString()))
+                .thenReturn(1);
+
+        assertThrows(IllegalStateException.class, () -> lock.withLock(userId, "resume", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        verify(jdbcTemplate).update(contains("DELETE FROM ingestion_locks"), eq(userId + ":resume"), anyString());
+    }
+}
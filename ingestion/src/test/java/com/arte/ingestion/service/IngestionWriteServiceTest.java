@@ -0,0 +1,70 @@
+package com.arte.ingestion.service;
+
+import com.arte.ingestion.entity.UserKnowledgeBase;
+import com.arte.ingestion.entity.Users;
+import com.arte.ingestion.repository.UserInfoRepository;
+import com.arte.ingestion.repository.UserInfoRepositoryCustom.StatsColumn;
+import com.arte.ingestion.repository.UserKnowledgeBaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngestionWriteServiceTest {
+
+    @Mock
+    private UserInfoRepository userInfoRepository;
+    @Mock
+    private UserKnowledgeBaseRepository knowledgeBaseRepository;
+
+    private IngestionWriteService writeService;
+
+    @BeforeEach
+    void setUp() {
+        writeService = new IngestionWriteService(userInfoRepository, knowledgeBaseRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void concurrentSourceWrites_keepBothColumns() throws Exception {
+        Users user = new Users("test@test.com", "testuser", "ghp_testtoken");
+        user.setId(UUID.randomUUID());
+
+        // stands in for the user_info row: the upsert only ever touches its own column
+        Map<StatsColumn, Map<String, Object>> row = new ConcurrentHashMap<>();
+        CyclicBarrier bothWriting = new CyclicBarrier(2);
+        doAnswer(inv -> {
+            bothWriting.await(5, TimeUnit.SECONDS);
+            row.put(inv.getArgument(1), inv.getArgument(2));
+            return null;
+        }).when(userInfoRepository).upsertStats(eq(user.getId()), any(), any(), any());
+        when(knowledgeBaseRepository.upsertAll(anyList())).thenReturn(1);
+
+        var github = CompletableFuture.runAsync(() ->
+                writeService.writeGitHub(user, List.of(), Map.of("publicRepos", 12)));
+        var leetcode = CompletableFuture.runAsync(() ->
+                writeService.writeLeetCode(user, UserKnowledgeBase.builder().build(), Map.of("totalSolved", 340)));
+        CompletableFuture.allOf(github, leetcode).get(10, TimeUnit.SECONDS);
+
+        assertThat(row).containsOnlyKeys(StatsColumn.GITHUB, StatsColumn.LEETCODE);
+        assertThat(row.get(StatsColumn.GITHUB)).containsEntry("publicRepos", 12);
+        assertThat(row.get(StatsColumn.LEETCODE)).containsEntry("totalSolved", 340);
+        verify(userInfoRepository, never()).findById(any());
+        verify(userInfoRepository, never()).save(any());
+    }
+}
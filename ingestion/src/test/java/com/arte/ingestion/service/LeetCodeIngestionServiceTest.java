@@ -1,21 +1,22 @@
 package com.arte.ingestion.service;
 
 import com.arte.ingestion.client.LeetCodeGraphQLClient;
-import com.arte.ingestion.entity.UserInfo;
-import com.arte.ingestion.entity.UserKnowledgeBase;
+import com.arte.ingestion.dto.leetcode.LeetCodeUserDataResponse;
 import com.arte.ingestion.entity.Users;
 import com.arte.ingestion.repository.UserInfoRepository;
+import com.arte.ingestion.repository.UserInfoRepositoryCustom;
 import com.arte.ingestion.repository.UserKnowledgeBaseRepository;
 import com.arte.ingestion.repository.UserRepository;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -23,7 +24,9 @@ import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,9 +51,9 @@ class LeetCodeIngestionServiceTest {
         service = new LeetCodeIngestionService(
                 leetCodeClient,
                 userRepository,
-                userInfoRepository,
-                knowledgeBaseRepository,
-                objectMapper
+                new IngestionWriteService(userInfoRepository, knowledgeBaseRepository, new SimpleMeterRegistry()),
+                objectMapper,
+                new IngestionLeaseLock(mock(JdbcTemplate.class), new SimpleMeterRegistry())
         );
     }
 
@@ -70,7 +73,7 @@ class LeetCodeIngestionServiceTest {
         Users user = createTestUser(userId);
         
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(leetCodeClient.fetchUserProfile(anyString())).thenReturn(null);
+        when(leetCodeClient.fetchUserData(anyString(), anyInt())).thenReturn(null);
 
         var result = service.ingestLeetCodeData(userId, "nonexistent");
 
@@ -82,28 +85,17 @@ class LeetCodeIngestionServiceTest {
     void ingestLeetCodeData_withValidProfile_processesSuccessfully() {
         UUID userId = UUID.randomUUID();
         Users user = createTestUser(userId);
-        JsonNode profileData = createMockProfileResponse();
+        ObjectNode userData = createMockProfileResponse();
+        addMockSubmissions(userData);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(leetCodeClient.fetchUserProfile(anyString())).thenReturn(profileData);
-        when(leetCodeClient.fetchRecentSubmissions(anyString(), anyInt())).thenReturn(createMockSubmissionsResponse());
-        when(leetCodeClient.fetchContestRanking(anyString())).thenReturn(null);
-        when(leetCodeClient.fetchLanguageStats(anyString())).thenReturn(null);
-        when(userInfoRepository.findById(userId)).thenReturn(Optional.empty());
-        when(userInfoRepository.save(any(UserInfo.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(knowledgeBaseRepository.findByUserIdAndSourceTypeAndSourceUrl(any(), any(), any()))
-                .thenReturn(Optional.empty());
-        when(knowledgeBaseRepository.save(any(UserKnowledgeBase.class)))
-                .thenAnswer(inv -> {
-                    UserKnowledgeBase kb = inv.getArgument(0);
-                    kb.setId(UUID.randomUUID());
-                    return kb;
-                });
+        when(leetCodeClient.fetchUserData(anyString(), anyInt())).thenReturn(toResponse(userData));
+        when(knowledgeBaseRepository.upsertAll(anyList())).thenReturn(1);
 
         var result = service.ingestLeetCodeData(userId, "testuser");
 
         assertThat(result.success()).isTrue();
-        verify(userInfoRepository).save(any(UserInfo.class));
+        verify(userInfoRepository).upsertStats(eq(userId), eq(UserInfoRepositoryCustom.StatsColumn.LEETCODE), any(), any());
     }
 
     @Test
@@ -111,25 +103,63 @@ class LeetCodeIngestionServiceTest {
         UUID userId = UUID.randomUUID();
         Users user = createTestUser(userId);
 
+        ObjectNode userData = createMockProfileResponse();
+        addMockContest(userData);
+
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(leetCodeClient.fetchUserProfile(anyString())).thenReturn(createMockProfileResponse());
-        when(leetCodeClient.fetchRecentSubmissions(anyString(), anyInt())).thenReturn(null);
-        when(leetCodeClient.fetchContestRanking(anyString())).thenReturn(createMockContestResponse());
-        when(leetCodeClient.fetchLanguageStats(anyString())).thenReturn(null);
-        when(userInfoRepository.findById(userId)).thenReturn(Optional.empty());
-        when(userInfoRepository.save(any(UserInfo.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(knowledgeBaseRepository.findByUserIdAndSourceTypeAndSourceUrl(any(), any(), any()))
-                .thenReturn(Optional.empty());
-        when(knowledgeBaseRepository.save(any(UserKnowledgeBase.class)))
-                .thenAnswer(inv -> {
-                    UserKnowledgeBase kb = inv.getArgument(0);
-                    kb.setId(UUID.randomUUID());
-                    return kb;
-                });
+        when(leetCodeClient.fetchUserData(anyString(), anyInt())).thenReturn(toResponse(userData));
+        when(knowledgeBaseRepository.upsertAll(anyList())).thenReturn(1);
 
         var result = service.ingestLeetCodeData(userId, "testuser");
 
         assertThat(result.success()).isTrue();
+        verify(knowledgeBaseRepository).upsertAll(argThat(entries ->
+                entries.getFirst().getContent().contains("Contest Rating: 1651")));
+    }
+
+    @Test
+    void ingestLeetCodeData_profileMissing_returnsFailure() {
+        UUID userId = UUID.randomUUID();
+        Users user = createTestUser(userId);
+        ObjectNode userData = objectMapper.createObjectNode();
+        userData.putObject("data").putNull("profile");
+        ObjectNode error = userData.putArray("errors").addObject();
+        error.put("message", "That user does not exist.");
+        error.putArray("path").add("profile");
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(leetCodeClient.fetchUserData(anyString(), anyInt())).thenReturn(toResponse(userData));
+
+        var result = service.ingestLeetCodeData(userId, "ghost");
+
+        assertThat(result.success()).isFalse();
+        verifyNoInteractions(knowledgeBaseRepository);
+    }
+
+    @Test
+    void ingestLeetCodeData_withSubmissions_bindsRecentSubmissions() {
+        UUID userId = UUID.randomUUID();
+        Users user = createTestUser(userId);
+        ObjectNode userData = createMockProfileResponse();
+        addMockSubmissions(userData);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(leetCodeClient.fetchUserData(anyString(), anyInt())).thenReturn(toResponse(userData));
+        when(knowledgeBaseRepository.upsertAll(anyList())).thenReturn(1);
+
+        service.ingestLeetCodeData(userId, "testuser");
+
+        verify(knowledgeBaseRepository).upsertAll(argThat(entries ->
+                entries.getFirst().getContent().contains("- Two Sum (java)")
+                        && entries.getFirst().getContent().contains("Total Problems Solved: 150")));
+    }
+
+    private LeetCodeUserDataResponse toResponse(ObjectNode root) {
+        try {
+            return objectMapper.treeToValue(root, LeetCodeUserDataResponse.class);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     private Users createTestUser(UUID userId) {
@@ -138,10 +168,10 @@ class LeetCodeIngestionServiceTest {
         return user;
     }
 
-    private JsonNode createMockProfileResponse() {
+    private ObjectNode createMockProfileResponse() {
         ObjectNode root = objectMapper.createObjectNode();
         ObjectNode data = root.putObject("data");
-        ObjectNode matchedUser = data.putObject("matchedUser");
+        ObjectNode matchedUser = data.putObject("profile");
         matchedUser.put("username", "testuser");
         
         ObjectNode profile = matchedUser.putObject("profile");
@@ -175,32 +205,26 @@ class LeetCodeIngestionServiceTest {
         return root;
     }
 
-    private JsonNode createMockSubmissionsResponse() {
-        ObjectNode root = objectMapper.createObjectNode();
-        ObjectNode data = root.putObject("data");
-        var submissions = data.putArray("recentAcSubmissionList");
+    private void addMockSubmissions(ObjectNode root) {
+        var submissions = ((ObjectNode) root.get("data")).putArray("recentSubmissions");
         
         ObjectNode sub1 = submissions.addObject();
         sub1.put("id", "12345");
         sub1.put("title", "Two Sum");
         sub1.put("titleSlug", "two-sum");
-        sub1.put("timestamp", System.currentTimeMillis() / 1000);
+        // leetcode sends timestamps as strings
+        sub1.put("timestamp", String.valueOf(System.currentTimeMillis() / 1000));
         sub1.put("lang", "java");
-
-        return root;
     }
 
-    private JsonNode createMockContestResponse() {
-        ObjectNode root = objectMapper.createObjectNode();
-        ObjectNode data = root.putObject("data");
-        ObjectNode ranking = data.putObject("userContestRanking");
+    private void addMockContest(ObjectNode root) {
+        ObjectNode data = (ObjectNode) root.get("data");
+        ObjectNode ranking = data.putObject("contestRanking");
         ranking.put("attendedContestsCount", 10);
         ranking.put("rating", 1650.5);
         ranking.put("globalRanking", 25000);
         ranking.put("topPercentage", 15.5);
         
-        data.putArray("userContestRankingHistory");
-        
-        return root;
+        data.putArray("contestHistory");
     }
 }
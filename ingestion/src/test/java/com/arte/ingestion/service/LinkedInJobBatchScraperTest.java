@@ -0,0 +1,85 @@
+package com.arte.ingestion.service;
+
+import com.arte.ingestion.repository.LinkedInJobsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LinkedInJobBatchScraperTest {
+
+    @Mock
+    private LinkedInJobsRepository linkedInJobsRepository;
+    @Mock
+    private LinkedInJobIngestionService linkedInJobIngestionService;
+
+    private LinkedInJobBatchScraper scraper;
+    private final List<LinkedInJobBatchScraper.JobResult> results = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        scraper = new LinkedInJobBatchScraper(linkedInJobsRepository, linkedInJobIngestionService,
+                Executors.newVirtualThreadPerTaskExecutor(), new SimpleMeterRegistry(), 2, 0);
+        ReflectionTestUtils.setField(scraper, "maxJobs", 3);
+    }
+
+    @Test
+    void scrape_dedupesAndSkipsStoredJobs() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(linkedInJobsRepository.findExistingJobIds(anyCollection())).thenReturn(List.of("4000000001"));
+        when(linkedInJobIngestionService.ingestLinkedInJob(eq(userId), eq("4000000002"), any()))
+                .thenReturn(new LinkedInJobIngestionService.LinkedInIngestionResult(true, "content"));
+        when(linkedInJobIngestionService.ingestLinkedInJob(eq(userId), eq("4000000003"), any()))
+                .thenReturn(new LinkedInJobIngestionService.LinkedInIngestionResult(false, "posting not found"));
+
+        var summary = scraper.scrape(userId, List.of("4000000001", "4000000002", " 4000000002", "4000000003"),
+                () -> false, results::add);
+
+        assertThat(summary).isEqualTo(new LinkedInJobBatchScraper.BatchSummary(3, 1, 1, 1, 0));
+        assertThat(results).hasSize(3);
+        assertThat(results).extracting(LinkedInJobBatchScraper.JobResult::completed).containsExactly(1, 2, 3);
+        verify(linkedInJobIngestionService, never()).ingestLinkedInJob(eq(userId), eq("4000000001"), any());
+        verify(linkedInJobIngestionService, times(1)).ingestLinkedInJob(eq(userId), eq("4000000002"), any());
+    }
+
+    @Test
+    void scrape_scrapeThrows_reportedAsFailed() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(linkedInJobsRepository.findExistingJobIds(anyCollection())).thenReturn(List.of());
+        when(linkedInJobIngestionService.ingestLinkedInJob(eq(userId), eq("4000000001"), any()))
+                .thenThrow(new IOException("connect timed out"));
+
+        var summary = scraper.scrape(userId, List.of("4000000001"), () -> false, results::add);
+
+        assertThat(summary.failed()).isEqualTo(1);
+        assertThat(results.getFirst().status()).isEqualTo(LinkedInJobBatchScraper.Status.FAILED);
+        assertThat(results.getFirst().message()).isEqualTo("connect timed out");
+    }
+
+    @Test
+    void scrape_tooManyJobs_rejected() {
+        assertThatThrownBy(() -> scraper.scrape(UUID.randomUUID(),
+                List.of("4000000001", "4000000002", "4000000003", "4000000004"), () -> false, results::add))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("max 3");
+        verifyNoInteractions(linkedInJobsRepository, linkedInJobIngestionService);
+    }
+}
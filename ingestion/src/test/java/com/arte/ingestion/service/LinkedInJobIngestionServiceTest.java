@@ -0,0 +1,113 @@
+package com.arte.ingestion.service;
+
+import com.arte.ingestion.client.LinkedInJobClient;
+import com.arte.ingestion.entity.LinkedInJobs;
+import com.arte.ingestion.repository.LinkedInJobsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LinkedInJobIngestionServiceTest {
+
+    private static final String JOB_ID = "4012345678";
+
+    @Mock
+    private LinkedInJobsRepository linkedInJobsRepository;
+    @Mock
+    private LinkedInJobClient linkedInJobClient;
+
+    private LinkedInJobIngestionService service;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service = new LinkedInJobIngestionService(linkedInJobsRepository, linkedInJobClient,
+                new LinkedInJobMissCache(mock(JdbcTemplate.class), meterRegistry, 100, 15, false),
+                meterRegistry, DataSize.ofMegabytes(1), 60);
+    }
+
+    @Test
+    void ingestLinkedInJob_knownJob_servedFromCacheAfterFirstLookup() throws Exception {
+        when(linkedInJobsRepository.findByJobId(JOB_ID))
+                .thenReturn(Optional.of(LinkedInJobs.builder().jobId(JOB_ID).rawContent("job description").build()));
+
+        var first = service.ingestLinkedInJob(UUID.randomUUID(), JOB_ID);
+        var second = service.ingestLinkedInJob(UUID.randomUUID(), JOB_ID);
+
+        assertThat(first.message()).isEqualTo("job description");
+        assertThat(second.message()).isEqualTo("job description");
+        verify(linkedInJobsRepository, times(1)).findByJobId(JOB_ID);
+        verifyNoInteractions(linkedInJobClient);
+    }
+
+    @Test
+    void ingestLinkedInJob_scrapedJob_savedAndCached() throws Exception {
+        when(linkedInJobsRepository.findByJobId(JOB_ID)).thenReturn(Optional.empty());
+        when(linkedInJobClient.fetchJobPage(JOB_ID)).thenReturn(Jsoup.parse(
+                "<div class=\"show-more-less-html__markup--clamp-after-5\"><p>Build things</p></div>"));
+
+        var first = service.ingestLinkedInJob(UUID.randomUUID(), JOB_ID);
+        var second = service.ingestLinkedInJob(UUID.randomUUID(), JOB_ID);
+
+        assertThat(first.success()).isTrue();
+        assertThat(second.message()).isEqualTo(first.message()).contains("Build things");
+        verify(linkedInJobsRepository).save(any(LinkedInJobs.class));
+        verify(linkedInJobClient, times(1)).fetchJobPage(JOB_ID);
+    }
+
+    @Test
+    void ingestLinkedInJob_removedPosting_rememberedWithReason() throws Exception {
+        when(linkedInJobsRepository.findByJobId(JOB_ID)).thenReturn(Optional.empty());
+        when(linkedInJobClient.fetchJobPage(JOB_ID))
+                .thenThrow(new HttpStatusException("HTTP error fetching URL", 404, "https://www.linkedin.com/jobs/view/" + JOB_ID));
+
+        var first = service.ingestLinkedInJob(UUID.randomUUID(), JOB_ID);
+        var second = service.ingestLinkedInJob(UUID.randomUUID(), JOB_ID);
+
+        assertThat(first.success()).isFalse();
+        assertThat(second.success()).isFalse();
+        assertThat(second.message()).contains("HTTP 404");
+        verify(linkedInJobClient, times(1)).fetchJobPage(JOB_ID);
+        verify(linkedInJobsRepository, times(1)).findByJobId(JOB_ID);
+        verify(linkedInJobsRepository, never()).save(any(LinkedInJobs.class));
+    }
+
+    @Test
+    void ingestLinkedInJob_invalidId_rejectedWithoutLookup() throws Exception {
+        var result = service.ingestLinkedInJob(UUID.randomUUID(), "abc");
+
+        assertThat(result.success()).isFalse();
+        assertThat(result.message()).contains("invalid job id");
+        verifyNoInteractions(linkedInJobsRepository, linkedInJobClient);
+    }
+
+    @Test
+    void ingestLinkedInJob_beforeFetch_onlyRunsForRealFetches() throws Exception {
+        when(linkedInJobsRepository.findByJobId(JOB_ID)).thenReturn(Optional.empty());
+        when(linkedInJobClient.fetchJobPage(JOB_ID))
+                .thenThrow(new HttpStatusException("HTTP error fetching URL", 410, "https://www.linkedin.com/jobs/view/" + JOB_ID));
+        AtomicInteger fetches = new AtomicInteger();
+
+        service.ingestLinkedInJob(UUID.randomUUID(), JOB_ID, fetches::incrementAndGet);
+        service.ingestLinkedInJob(UUID.randomUUID(), JOB_ID, fetches::incrementAndGet);
+        service.ingestLinkedInJob(UUID.randomUUID(), "abc", fetches::incrementAndGet);
+
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+}
@@ -1,6 +1,5 @@
 package com.arte.ingestion.service;
 
-import com.arte.ingestion.entity.UserInfo;
 import com.arte.ingestion.entity.UserKnowledgeBase;
 import com.arte.ingestion.entity.Users;
 import com.arte.ingestion.repository.UserInfoRepository;
@@ -8,12 +7,14 @@ import com.arte.ingestion.repository.UserKnowledgeBaseRepository;
 import com.arte.ingestion.repository.UserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
@@ -44,9 +45,10 @@ class ResumeProcessingServiceTest {
         objectMapper.registerModule(new JavaTimeModule());
         service = new ResumeProcessingService(
                 userRepository,
-                userInfoRepository,
                 knowledgeBaseRepository,
-                objectMapper
+                new IngestionWriteService(userInfoRepository, knowledgeBaseRepository, new SimpleMeterRegistry()),
+                objectMapper,
+                new IngestionLeaseLock(mock(JdbcTemplate.class), new SimpleMeterRegistry())
         );
         ReflectionTestUtils.setField(service, "wordCap", 3000);
     }
@@ -108,9 +110,7 @@ class ResumeProcessingServiceTest {
         );
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userInfoRepository.findById(userId)).thenReturn(Optional.empty());
-        when(userInfoRepository.save(any(UserInfo.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(knowledgeBaseRepository.findByUserIdAndSourceTypeAndSourceUrl(any(), any(), any()))
+        when(knowledgeBaseRepository.findByUserIdAndSourceType(any(), any()))
                 .thenReturn(Optional.empty());
         when(knowledgeBaseRepository.save(any(UserKnowledgeBase.class)))
                 .thenAnswer(inv -> {
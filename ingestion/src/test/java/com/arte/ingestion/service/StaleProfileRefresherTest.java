@@ -0,0 +1,116 @@
+package com.arte.ingestion.service;
+
+import com.arte.ingestion.repository.IngestionJobQueue;
+import com.arte.ingestion.repository.UserInfoRepository;
+import com.arte.ingestion.repository.UserInfoRepository.StaleUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StaleProfileRefresherTest {
+
+    @Mock private UserInfoRepository userInfoRepository;
+    @Mock private IngestionJobQueue jobQueue;
+
+    private StaleProfileRefresher refresher;
+
+    @BeforeEach
+    void setUp() {
+        refresher = new StaleProfileRefresher(userInfoRepository, jobQueue, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(refresher, "staleAfterHours", 24L);
+        ReflectionTestUtils.setField(refresher, "pageSize", 2);
+        ReflectionTestUtils.setField(refresher, "maxOutstanding", 10);
+        ReflectionTestUtils.setField(refresher, "jobsPerMinute", 60);
+        ReflectionTestUtils.setField(refresher, "activityWindowDays", 30L);
+    }
+
+    @Test
+    void refresh_pagesWithKeysetCursorAndPutsActiveUsersFirst() {
+        StaleUser a = user(1, null);
+        StaleUser b = user(2, "lc-b");
+        StaleUser c = user(3, null);
+        when(jobQueue.outstanding("refresh")).thenReturn(0);
+        when(userInfoRepository.findStaleUserInfo(any(), eq(Instant.EPOCH), eq(new UUID(0L, 0L)), eq(Limit.of(2))))
+                .thenReturn(List.of(a, b));
+        when(userInfoRepository.findStaleUserInfo(any(), eq(b.getLastIngestedAt()), eq(b.getUserId()), eq(Limit.of(2))))
+                .thenReturn(List.of(c));
+        when(jobQueue.recentUserJobs(anyCollection(), any())).thenReturn(Map.of(b.getUserId(), 3));
+        when(jobQueue.enqueue(any(), eq("FULL"), anyMap(), any())).thenReturn(true);
+
+        int queued = refresher.refresh();
+
+        assertEquals(3, queued);
+        InOrder order = inOrder(jobQueue);
+        order.verify(jobQueue).enqueue(eq(b.getUserId()), eq("FULL"),
+                eq(Map.of("trigger", "refresh", "leetcodeUsername", "lc-b")), eq(Duration.ZERO));
+        order.verify(jobQueue).enqueue(eq(a.getUserId()), eq("FULL"), eq(Map.of("trigger", "refresh")), eq(Duration.ofSeconds(1)));
+        order.verify(jobQueue).enqueue(eq(c.getUserId()), eq("FULL"), anyMap(), eq(Duration.ofSeconds(2)));
+    }
+
+    @Test
+    void refresh_stopsAtOutstandingBudget() {
+        when(jobQueue.outstanding("refresh")).thenReturn(9);
+        when(userInfoRepository.findStaleUserInfo(any(), any(), any(), any()))
+                .thenReturn(List.of(user(1, null), user(2, null)));
+        when(jobQueue.enqueue(any(), any(), anyMap(), any())).thenReturn(true);
+
+        assertEquals(1, refresher.refresh());
+        verify(jobQueue, times(1)).enqueue(any(), any(), anyMap(), any());
+        verify(userInfoRepository, times(1)).findStaleUserInfo(any(), any(), any(), any());
+    }
+
+    @Test
+    void refresh_skipsRecentlyFailedUsersAndMovesOnToLaterPages() {
+        StaleUser a = user(1, null);
+        StaleUser b = user(2, null);
+        StaleUser c = user(3, null);
+        when(jobQueue.outstanding("refresh")).thenReturn(9);
+        when(userInfoRepository.findStaleUserInfo(any(), eq(Instant.EPOCH), eq(new UUID(0L, 0L)), eq(Limit.of(2))))
+                .thenReturn(List.of(a, b));
+        when(userInfoRepository.findStaleUserInfo(any(), eq(b.getLastIngestedAt()), eq(b.getUserId()), eq(Limit.of(2))))
+                .thenReturn(List.of(c));
+        when(jobQueue.recentlyFailed(anyCollection(), eq("refresh"), any()))
+                .thenReturn(Set.of(a.getUserId(), b.getUserId()));
+        when(jobQueue.enqueue(any(), any(), anyMap(), any())).thenReturn(true);
+
+        assertEquals(1, refresher.refresh());
+        verify(jobQueue).enqueue(eq(c.getUserId()), eq("FULL"), anyMap(), eq(Duration.ZERO));
+        verify(jobQueue, times(1)).enqueue(any(), any(), anyMap(), any());
+    }
+
+    @Test
+    void refresh_skipsWhenBudgetUsedUp() {
+        when(jobQueue.outstanding("refresh")).thenReturn(10);
+
+        assertEquals(0, refresher.refresh());
+        verifyNoInteractions(userInfoRepository);
+    }
+
+    private static StaleUser user(int hoursAgo, String leetcodeUsername) {
+        UUID id = UUID.randomUUID();
+        Instant lastIngestedAt = Instant.parse("2026-01-01T00:00:00Z").plus(Duration.ofHours(hoursAgo));
+        return new StaleUser() {
+            @Override public UUID getUserId() { return id; }
+            @Override public Instant getLastIngestedAt() { return lastIngestedAt; }
+            @Override public String getLeetcodeUsername() { return leetcodeUsername; }
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.arte.ingestion.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+    private final BoundedCache<String, String> cache = new BoundedCache<>(
+            "test", 10, Duration.ofSeconds(5), String::length, meterRegistry, now::get);
+
+    @Test
+    void put_overWeight_evictsLeastRecentlyUsed() {
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        cache.get("a");
+        cache.put("c", "cccc");
+
+        assertThat(cache.get("a")).contains("aaaa");
+        assertThat(cache.get("b")).isEmpty();
+        assertThat(cache.get("c")).contains("cccc");
+        assertThat(cache.weight()).isEqualTo(8);
+        assertThat(meterRegistry.get("ingestion.cache.evictions").tag("reason", "size").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void get_afterTtl_missesAndDropsEntry() {
+        cache.put("a", "aaaa");
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        assertThat(cache.get("a")).isEmpty();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.weight()).isZero();
+        assertThat(meterRegistry.get("ingestion.cache.gets").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void put_heavierThanCache_isNotStored() {
+        cache.put("a", "aaaa");
+        cache.put("a", "x".repeat(11));
+
+        assertThat(cache.get("a")).isEmpty();
+        assertThat(cache.weight()).isZero();
+    }
+}
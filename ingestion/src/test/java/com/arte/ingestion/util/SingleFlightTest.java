@@ -0,0 +1,73 @@
+package com.arte.ingestion.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+    @Test
+    void concurrentCallsShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> first = executor.submit(() -> singleFlight.execute("user", Duration.ZERO, () -> {
+                started.countDown();
+                await(release);
+                return executions.incrementAndGet();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<Integer> second = executor.submit(() -> singleFlight.execute("user", Duration.ZERO, executions::incrementAndGet));
+            // give the second caller time to join the running flight
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, second.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertFalse(singleFlight.isActive("user"));
+    }
+
+    @Test
+    void resultIsServedUntilTtlExpires() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+
+        assertEquals(1, singleFlight.execute("user", Duration.ofMillis(200), executions::incrementAndGet));
+        assertEquals(1, singleFlight.execute("user", Duration.ofMillis(200), executions::incrementAndGet));
+        assertEquals(1, singleFlight.execute("other", Duration.ofMillis(200), () -> 1));
+
+        Thread.sleep(250);
+        assertEquals(2, singleFlight.execute("user", Duration.ofMillis(200), executions::incrementAndGet));
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("user", Duration.ofSeconds(10), () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(7, singleFlight.execute("user", Duration.ofSeconds(10), () -> 7));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}